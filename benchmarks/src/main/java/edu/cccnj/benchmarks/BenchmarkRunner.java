@@ -0,0 +1,39 @@
+package edu.cccnj.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The main class of benchmarks.jar. It takes the same command line as JMH's own runner (try -h), but unless you say
+ * otherwise it:
+ *
+ * * turns on the gc profiler, so every benchmark also reports how many bytes it allocated per operation
+ * * writes the results to jmh-result.json, so runs from different commits can be compared
+ *
+ * For example, to run just the LinkedList benchmarks at one size, and save the results somewhere else:
+ *
+ * java -jar benchmarks/target/benchmarks.jar LinkedListBenchmark -p size=100000 -rff before.json
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        // Anything from the command line wins; these only fill in what it didn't say
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if(!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+
+        if(commandLine.getProfilers().isEmpty())
+            options.addProfiler(GCProfiler.class);
+
+        new Runner(options.build()).run();
+    }
+}
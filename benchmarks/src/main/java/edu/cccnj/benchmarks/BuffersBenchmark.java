@@ -0,0 +1,139 @@
+package edu.cccnj.benchmarks;
+
+import edu.cccnj.BufferMetrics;
+import edu.cccnj.Buffers;
+import edu.cccnj.WindowedQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the single-threaded Stack and Queue.
+ *
+ * The fill/drain benchmarks put size items in and take them all back out, which is what shows an O(n) pop or dequeue
+ * turning into O(n^2). The steady benchmarks do one put and one take against a buffer that already holds size items,
+ * which is the cost per item once things are warmed up. The instrumented one is the same thing with BufferMetrics
+ * turned on, to show what the metrics cost per item.
+ *
+ * The batch benchmarks do the same as fill/drain, but with pushAll/popN and enqueueAll/drainTo.
+ *
+ * windowedSlide adds one item to a full WindowedQueue of size items and asks for the sum of the window. It should
+ * take about as long for every size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BuffersBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private final Integer item = 42;
+
+    private Buffers.Stack stack;
+
+    private Buffers.Queue queue;
+
+    private Buffers.Queue instrumentedQueue;
+
+    private Object[] batch;
+
+    private WindowedQueue<Long> window;
+
+    private final Long reading = 42L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stack = (Buffers.Stack) Buffers.make(Buffers.Types.Stack);
+        queue = (Buffers.Queue) Buffers.make(Buffers.Types.Queue);
+        instrumentedQueue = (Buffers.Queue) Buffers.makeInstrumented(Buffers.Types.Queue, new BufferMetrics("benchmark"));
+        window = Buffers.makeWindowed(Long::sum, 0L, size);
+        batch = new Object[size];
+        Arrays.fill(batch, item);
+
+        for(int i = 0; i < size; i++) {
+            stack.push(item);
+            queue.enqueue(item);
+            instrumentedQueue.enqueue(item);
+            window.enqueue(reading);
+        }
+    }
+
+    @Benchmark
+    public void stackFillDrain(Blackhole blackhole) {
+        Buffers.Stack fresh = (Buffers.Stack) Buffers.make(Buffers.Types.Stack);
+
+        for(int i = 0; i < size; i++)
+            fresh.push(item);
+
+        for(int i = 0; i < size; i++)
+            blackhole.consume(fresh.pop());
+    }
+
+    @Benchmark
+    public void queueFillDrain(Blackhole blackhole) {
+        Buffers.Queue fresh = (Buffers.Queue) Buffers.make(Buffers.Types.Queue);
+
+        for(int i = 0; i < size; i++)
+            fresh.enqueue(item);
+
+        for(int i = 0; i < size; i++)
+            blackhole.consume(fresh.dequeue());
+    }
+
+    @Benchmark
+    public Object[] stackBatchFillDrain() {
+        Buffers.Stack fresh = (Buffers.Stack) Buffers.make(Buffers.Types.Stack);
+
+        fresh.pushAll(batch);
+        return fresh.popN(size);
+    }
+
+    @Benchmark
+    public void queueBatchFillDrain(Blackhole blackhole) {
+        Buffers.Queue fresh = (Buffers.Queue) Buffers.make(Buffers.Types.Queue);
+
+        fresh.enqueueAll(batch);
+        fresh.drainTo(blackhole::consume, size);
+    }
+
+    @Benchmark
+    public Object stackPushPop() {
+        stack.push(item);
+        return stack.pop();
+    }
+
+    @Benchmark
+    public Object queueEnqueueDequeue() {
+        queue.enqueue(item);
+        return queue.dequeue();
+    }
+
+    @Benchmark
+    public Object instrumentedQueueEnqueueDequeue() {
+        instrumentedQueue.enqueue(item);
+        return instrumentedQueue.dequeue();
+    }
+
+    @Benchmark
+    public Long windowedSlide() {
+        window.enqueue(reading);
+        return window.aggregate();
+    }
+}
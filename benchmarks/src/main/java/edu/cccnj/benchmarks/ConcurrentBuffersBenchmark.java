@@ -0,0 +1,156 @@
+package edu.cccnj.benchmarks;
+
+import edu.cccnj.BlockingQueue;
+import edu.cccnj.Buffers;
+import edu.cccnj.ConcurrentQueue;
+import edu.cccnj.ConcurrentStack;
+import edu.cccnj.SpscQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the thread-safe buffers hold up when several threads use them at once. Every thread does one put and one
+ * take per operation, so the buffer stays about the same size no matter how fast the threads run. "Synchronized" is a
+ * plain Buffers.Queue inside a synchronized block, which is what the concurrent buffers are meant to beat.
+ *
+ * Change the thread count with -t, for example -t 1, -t 4, -t 32, to see how each one scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBuffersBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    /**
+     * Puts the different buffers behind one interface, so every one runs exactly the same benchmark code.
+     */
+    private interface Target {
+        void put(Object item);
+
+        Object take();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"Synchronized", "ConcurrentQueue", "ConcurrentStack", "BlockingQueue"})
+        public String type;
+
+        Target target;
+
+        @Setup
+        public void setUp() {
+            switch(type) {
+                case "Synchronized": {
+                    Buffers.Queue queue = (Buffers.Queue) Buffers.make(Buffers.Types.Queue);
+                    target = new Target() {
+                        public void put(Object item) {
+                            synchronized(queue) {
+                                queue.enqueue(item);
+                            }
+                        }
+
+                        public Object take() {
+                            synchronized(queue) {
+                                return queue.dequeue();
+                            }
+                        }
+                    };
+                    break;
+                }
+                case "ConcurrentQueue": {
+                    ConcurrentQueue queue = (ConcurrentQueue) Buffers.make(Buffers.Types.ConcurrentQueue);
+                    target = new Target() {
+                        public void put(Object item) {
+                            queue.enqueue(item);
+                        }
+
+                        public Object take() {
+                            return queue.dequeue();
+                        }
+                    };
+                    break;
+                }
+                case "ConcurrentStack": {
+                    ConcurrentStack stack = (ConcurrentStack) Buffers.make(Buffers.Types.ConcurrentStack);
+                    target = new Target() {
+                        public void put(Object item) {
+                            stack.push(item);
+                        }
+
+                        public Object take() {
+                            return stack.pop();
+                        }
+                    };
+                    break;
+                }
+                case "BlockingQueue": {
+                    BlockingQueue queue = (BlockingQueue) Buffers.make(Buffers.Types.BlockingQueue);
+                    target = new Target() {
+                        public void put(Object item) {
+                            queue.tryEnqueue(item);
+                        }
+
+                        public Object take() {
+                            return queue.tryDequeue();
+                        }
+                    };
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown buffer type " + type);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object putTake(Shared shared) {
+        shared.target.put(ITEM);
+        return shared.target.take();
+    }
+
+    /**
+     * The SpscQueue only allows one producer and one consumer, so it gets a benchmark group of exactly two threads.
+     */
+    @State(Scope.Group)
+    public static class Spsc {
+        SpscQueue queue;
+
+        @Setup
+        public void setUp() {
+            queue = (SpscQueue) Buffers.make(Buffers.Types.SpscQueue);
+        }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean spscProduce(Spsc spsc) {
+        return spsc.queue.enqueue(ITEM);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Object spscConsume(Spsc spsc) {
+        return spsc.queue.dequeue();
+    }
+}
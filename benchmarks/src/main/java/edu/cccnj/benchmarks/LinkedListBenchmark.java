@@ -0,0 +1,192 @@
+package edu.cccnj.benchmarks;
+
+import edu.cccnj.IndexedLinkedList;
+import edu.cccnj.LinkedList;
+import edu.cccnj.LongCountMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the LinkedList operations on lists of different sizes. Each benchmark is one whole operation (one map, one
+ * get, ...) on a list of the given size, so comparing sizes shows how each operation grows.
+ *
+ * The churn benchmarks are the exception: one append and one removeFirst on a list that stays at size items, with and
+ * without a NodePool. Run them with -prof gc to see the pooled one allocate nothing.
+ *
+ * indexedGetMiddle and indexedInsertRemoveMiddle are for comparing with getMiddle: the same lookup, on an
+ * IndexedLinkedList of the same items.
+ *
+ * The countBy and hashJoin benchmarks group the shuffled list into KEYS keys, or join it with a list of KEYS items, each
+ * with the boxed-key version and the ...Long one, to show what the primitive tables save.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LinkedListBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private LinkedList<Integer> list;
+
+    private IndexedLinkedList<Integer> indexed;
+
+    private LinkedList<Integer> shuffled;
+
+    private LinkedList<Integer> churned;
+
+    private LinkedList<Integer> pooledChurned;
+
+    private LinkedList<Integer> keys;
+
+    private final Integer item = 42;
+
+    private static final int KEYS = 1024;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new LinkedList<Integer>();
+        churned = new LinkedList<Integer>();
+        pooledChurned = LinkedList.pooled();
+        indexed = new IndexedLinkedList<Integer>();
+        shuffled = new LinkedList<Integer>();
+        keys = LinkedList.range(0, KEYS).toLinkedList();
+        Random random = new Random(42);
+
+        for(int i = 0; i < size; i++) {
+            list.append(i);
+            indexed.append(i);
+            shuffled.append(random.nextInt());
+            churned.append(item);
+            pooledChurned.append(item);
+        }
+    }
+
+    @Benchmark
+    public LinkedList<Integer> append() {
+        LinkedList<Integer> built = new LinkedList<Integer>();
+
+        for(int i = 0; i < size; i++)
+            built.append(i);
+
+        return built;
+    }
+
+    @Benchmark
+    public Integer getMiddle() {
+        return list.get(size / 2);
+    }
+
+    @Benchmark
+    public Integer indexedGetMiddle() {
+        return indexed.get(size / 2);
+    }
+
+    @Benchmark
+    public Integer indexedInsertRemoveMiddle() {
+        indexed.insert(size / 2, item);
+        return indexed.remove(size / 2);
+    }
+
+    @Benchmark
+    public int length() {
+        return list.length();
+    }
+
+    @Benchmark
+    public LinkedList<Integer> map() {
+        return list.map(x -> x + 1);
+    }
+
+    @Benchmark
+    public LinkedList<Integer> filter() {
+        return list.filter(x -> x % 2 == 0);
+    }
+
+    @Benchmark
+    public Integer reduce() {
+        return list.reduce((x, y) -> x + y, 0);
+    }
+
+    /**
+     * The whole filter, map, reduce chain from Main, run through a lazy Pipeline.
+     */
+    @Benchmark
+    public Integer lazyChain() {
+        return list.lazy()
+                .filter(x -> x % 2 == 0)
+                .map(x -> x + 3)
+                .reduce((x, y) -> x + y, 0);
+    }
+
+    /**
+     * Sorting has to start from the same unsorted list every time, so this includes a clone.
+     */
+    @Benchmark
+    public LinkedList<Integer> cloneAndSort() {
+        LinkedList<Integer> copy = shuffled.clone();
+        copy.sort(null);
+        return copy;
+    }
+
+    @Benchmark
+    public LinkedList<Integer> cloneAndParallelSort() {
+        LinkedList<Integer> copy = shuffled.clone();
+        copy.parallelSort(null);
+        return copy;
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countBy() {
+        return shuffled.countBy(x -> x & (KEYS - 1));
+    }
+
+    @Benchmark
+    public LongCountMap countByLong() {
+        return shuffled.countByLong(x -> x & (KEYS - 1));
+    }
+
+    @Benchmark
+    public LinkedList<Integer> hashJoin() {
+        return shuffled.hashJoin(keys, x -> x & (KEYS - 1), k -> k, (x, k) -> x);
+    }
+
+    @Benchmark
+    public LinkedList<Integer> hashJoinLong() {
+        return shuffled.hashJoinLong(keys, x -> x & (KEYS - 1), k -> k, (x, k) -> x);
+    }
+
+    @Benchmark
+    public LinkedList<Integer> cloneList() {
+        return list.clone();
+    }
+
+    @Benchmark
+    public Integer churn() {
+        churned.append(item);
+        return churned.removeFirst();
+    }
+
+    @Benchmark
+    public Integer pooledChurn() {
+        pooledChurned.append(item);
+        return pooledChurned.removeFirst();
+    }
+}
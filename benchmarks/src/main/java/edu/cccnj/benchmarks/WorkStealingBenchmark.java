@@ -0,0 +1,178 @@
+package edu.cccnj.benchmarks;
+
+import edu.cccnj.ConcurrentQueue;
+import edu.cccnj.WorkStealingExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a fine-grained recursive computation (the naive recursive Fibonacci, where every call is a task that starts
+ * another task) on a WorkStealingExecutor, and on the same number of threads all taking from one shared
+ * ConcurrentQueue. Every task is tiny, so this is mostly a measure of what it costs to hand out a task.
+ *
+ * Change the number of workers with -p workers=..., and the size of the computation with -p n=... It only shows
+ * anything on a machine with at least as many processors as workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkStealingBenchmark {
+
+    @Param({"WorkStealing", "SharedQueue"})
+    public String executor;
+
+    @Param({"4"})
+    public int workers;
+
+    @Param({"22"})
+    public int n;
+
+    private Executor pool;
+
+    private Runnable stop;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch(executor) {
+            case "WorkStealing":
+                WorkStealingExecutor stealing = new WorkStealingExecutor(workers);
+                pool = stealing;
+                stop = stealing::close;
+                break;
+            case "SharedQueue":
+                SharedQueueExecutor shared = new SharedQueueExecutor(workers);
+                pool = shared;
+                stop = shared::close;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown executor " + executor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stop.run();
+    }
+
+    @Benchmark
+    public long fibonacci() {
+        Fibonacci root = new Fibonacci(n, pool, new AtomicLong(), new AtomicInteger(1));
+        pool.execute(root);
+
+        while(root.pending.get() != 0)
+            Thread.onSpinWait();
+
+        return root.sum.get();
+    }
+
+    /**
+     * fib(n) as tasks: each task starts fib(n - 1) as a new task and works out fib(n - 2) itself, and every fib(0) or
+     * fib(1) adds itself to sum. pending counts the tasks that haven't finished, so the caller knows when it's done.
+     */
+    private static final class Fibonacci implements Runnable {
+
+        final int n;
+        final Executor pool;
+        final AtomicLong sum;
+        final AtomicInteger pending;
+
+        Fibonacci(int n, Executor pool, AtomicLong sum, AtomicInteger pending) {
+            this.n = n;
+            this.pool = pool;
+            this.sum = sum;
+            this.pending = pending;
+        }
+
+        @Override
+        public void run() {
+            int k = n;
+
+            while(k >= 2) {
+                pending.incrementAndGet();
+                pool.execute(new Fibonacci(k - 1, pool, sum, pending));
+                k -= 2;
+            }
+
+            sum.addAndGet(k);
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * The thing work stealing is meant to beat: every worker takes from, and every task goes onto, one shared queue.
+     * Idle workers spin, yield and park just like WorkStealingExecutor's, so the only difference is where tasks go.
+     */
+    private static final class SharedQueueExecutor implements Executor {
+
+        private final ConcurrentQueue queue = new ConcurrentQueue();
+
+        private final Thread[] threads;
+
+        private volatile boolean stopped;
+
+        SharedQueueExecutor(int workers) {
+            threads = new Thread[workers];
+
+            for(int i = 0; i < workers; i++) {
+                threads[i] = new Thread(this::work, "shared-queue-worker-" + i);
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            queue.enqueue(task);
+        }
+
+        private void work() {
+            int misses = 0;
+
+            while(!stopped) {
+                Runnable task = (Runnable) queue.dequeue();
+
+                if(task != null) {
+                    misses = 0;
+                    task.run();
+                }
+                else if(++misses < 64)
+                    Thread.onSpinWait();
+                else if(misses < 128)
+                    Thread.yield();
+                else
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        void close() {
+            stopped = true;
+
+            try {
+                for(Thread thread : threads)
+                    thread.join();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
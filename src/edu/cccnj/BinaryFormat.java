@@ -0,0 +1,301 @@
+package edu.cccnj;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The binary format that LinkedList, IntLinkedList, LongLinkedList and DoubleLinkedList are written in by writeTo, and
+ * read back from by readFrom and load. toString is for people to read; this is for programs.
+ *
+ * Every list starts with a 9 byte header:
+ *
+ * [MAGIC (4 bytes)] [what kind of list (1 byte)] [how many items (4 bytes)]
+ *
+ * For the primitive lists, the values come right after, 4 or 8 bytes each, with nothing in between. That's exactly how
+ * they sit in the list's array, so they can be copied in and out in big blocks, never one value at a time.
+ *
+ * For a LinkedList, each item is its length (4 bytes) and then whatever the list's Codec wrote for it. A length of -1
+ * means the item was null.
+ *
+ * Everything is big-endian, whatever order the ByteBuffer or machine uses.
+ *
+ * Reading never reads past the end of the list, so a stream can have more than one list in it, or other data after.
+ */
+final class BinaryFormat {
+
+    /**
+     * The first four bytes of every list, "LLst". If they're wrong, it isn't one of our lists.
+     */
+    static final int MAGIC = 0x4C4C7374;
+
+    // The kinds of list
+    static final byte OBJECTS = 0;
+    static final byte INTS = 1;
+    static final byte LONGS = 2;
+    static final byte DOUBLES = 3;
+
+    static final int HEADER = 9;
+
+    /**
+     * How many bytes are moved to or from a channel at a time.
+     */
+    private static final int CHUNK = 1 << 16;
+
+    /**
+     * Copies count values, starting at index from, between a primitive array and buffer. This is what lets the primitive
+     * lists share the chunking code below while still copying with IntBuffer, LongBuffer or DoubleBuffer.
+     */
+    interface Copier {
+        void copy(ByteBuffer buffer, int from, int count);
+    }
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Writes a whole primitive list: the header, then every value, CHUNK bytes at a time.
+     * @param channel Where to write
+     * @param kind INTS, LONGS or DOUBLES
+     * @param count How many values there are
+     * @param width How many bytes each value takes
+     * @param copier Copies values out of the list's array into the buffer
+     */
+    static void writePrimitives(WritableByteChannel channel, byte kind, int count, int width, Copier copier) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+        putHeader(buffer, kind, count);
+
+        for(int done = 0; done < count; ) {
+            int n = Math.min(count - done, buffer.remaining() / width);
+
+            copier.copy(buffer, done, n);
+            buffer.position(buffer.position() + n * width);
+            done += n;
+
+            if(buffer.remaining() < width)
+                drain(channel, buffer);
+        }
+
+        drain(channel, buffer);
+    }
+
+    /**
+     * Reads the values of a primitive list, after its header, CHUNK bytes at a time.
+     * @param channel Where to read from
+     * @param count How many values there are, from readHeader
+     * @param width How many bytes each value takes
+     * @param copier Copies values out of the buffer into the list's array
+     */
+    static void readPrimitives(ReadableByteChannel channel, int count, int width, Copier copier) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(width, CHUNK / width * width));
+
+        for(int done = 0; done < count; ) {
+            int n = Math.min(count - done, buffer.capacity() / width);
+
+            buffer.clear().limit(n * width);
+            readFully(channel, buffer);
+            buffer.flip();
+
+            copier.copy(buffer, done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Writes a whole LinkedList: the header, then the length and bytes of every item.
+     * @param channel Where to write
+     * @param items The items
+     * @param count How many items there are
+     * @param codec How to turn an item into bytes
+     */
+    static <T> void writeObjects(WritableByteChannel channel, Iterable<T> items, int count, Codec<? super T> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+        putHeader(buffer, OBJECTS, count);
+
+        for(T item : items) {
+            int most = item == null ? Integer.BYTES : Integer.BYTES + codec.maxSize(item);
+
+            if(buffer.remaining() < most) {
+                drain(channel, buffer);
+
+                // An item bigger than the whole buffer gets a buffer of its own
+                if(buffer.capacity() < most)
+                    buffer = ByteBuffer.allocate(most);
+            }
+
+            if(item == null) {
+                buffer.putInt(-1);
+                continue;
+            }
+
+            // Leave room for the length, and fill it in once we know what it is
+            int start = buffer.position();
+            buffer.position(start + Integer.BYTES);
+            codec.write(item, buffer);
+            buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+        }
+
+        drain(channel, buffer);
+    }
+
+    /**
+     * Reads the items of a LinkedList, after its header.
+     * @param channel Where to read from
+     * @param count How many items there are, from readHeader
+     * @param codec How to turn bytes back into an item
+     * @return The list
+     */
+    static <T> LinkedList<T> readObjects(ReadableByteChannel channel, int count, Codec<T> codec) throws IOException {
+        LinkedList<T> list = new LinkedList<T>();
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+
+        for(int i = 0; i < count; i++) {
+            buffer.clear().limit(Integer.BYTES);
+            readFully(channel, buffer);
+
+            int length = buffer.getInt(0);
+
+            if(length == -1) {
+                list.append(null);
+                continue;
+            }
+
+            if(length < 0)
+                throw new StreamCorruptedException("Item " + i + " has a length of " + length);
+
+            if(buffer.capacity() < length)
+                buffer = ByteBuffer.allocate(length);
+
+            buffer.clear().limit(length);
+            readFully(channel, buffer);
+            buffer.flip();
+
+            list.append(codec.read(buffer, length));
+        }
+
+        return list;
+    }
+
+    /**
+     * Reads the items of a LinkedList straight out of a ByteBuffer, after its header. The only objects made are the
+     * items themselves.
+     * @param in The bytes, moved past the list afterwards
+     * @param count How many items there are, from loadHeader
+     * @param codec How to turn bytes back into an item
+     * @return The list
+     */
+    static <T> LinkedList<T> loadObjects(ByteBuffer in, int count, Codec<T> codec) {
+        LinkedList<T> list = new LinkedList<T>();
+
+        for(int i = 0; i < count; i++) {
+            int length = in.getInt();
+
+            if(length == -1) {
+                list.append(null);
+                continue;
+            }
+
+            if(length < 0 || length > in.remaining())
+                throw new IllegalArgumentException("Item " + i + " has a length of " + length);
+
+            int start = in.position();
+            list.append(codec.read(in, length));
+            in.position(start + length);
+        }
+
+        return list;
+    }
+
+    /**
+     * Reads and checks the header of a list from a channel.
+     * @param channel Where to read from
+     * @param kind What kind of list it has to be
+     * @return How many items are in the list
+     * @throws StreamCorruptedException If the header isn't right
+     */
+    static int readHeader(ReadableByteChannel channel, byte kind) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        readFully(channel, header);
+        header.flip();
+
+        int count = checkHeader(header, kind);
+
+        if(count < 0)
+            throw new StreamCorruptedException("Not a list of kind " + kind);
+
+        return count;
+    }
+
+    /**
+     * Reads and checks the header of a list from a ByteBuffer.
+     * @param in Where to read from. Moved past the header.
+     * @param kind What kind of list it has to be
+     * @param width How many bytes each item takes at least, to check that the items could all be there
+     * @return How many items are in the list
+     * @throws IllegalArgumentException If the header isn't right
+     */
+    static int loadHeader(ByteBuffer in, byte kind, int width) {
+        int count = checkHeader(in, kind);
+
+        if(count < 0)
+            throw new IllegalArgumentException("Not a list of kind " + kind);
+
+        if((long) count * width > in.remaining())
+            throw new IllegalArgumentException(count + " items can't fit in the " + in.remaining() + " bytes left");
+
+        return count;
+    }
+
+    /**
+     * Gives a view of buffer to read from that's always big-endian, whatever buffer's order is, starting at buffer's
+     * position. When you're done with it, call finish to move buffer's position past what was read.
+     */
+    static ByteBuffer view(ByteBuffer buffer) {
+        return buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    static void finish(ByteBuffer buffer, ByteBuffer view) {
+        buffer.position(buffer.position() + view.position());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void putHeader(ByteBuffer out, byte kind, int count) {
+        out.putInt(MAGIC).put(kind).putInt(count);
+    }
+
+    /**
+     * @return The count from the header, or -1 if the header isn't right
+     */
+    private static int checkHeader(ByteBuffer in, byte kind) {
+        if(in.remaining() < HEADER || in.getInt() != MAGIC || in.get() != kind)
+            return -1;
+
+        return Math.max(in.getInt(), -1);
+    }
+
+    /**
+     * Writes everything in buffer to the channel, and empties it.
+     */
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+
+        buffer.clear();
+    }
+
+    /**
+     * Reads from the channel until buffer is full up to its limit.
+     */
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining())
+            if(channel.read(buffer) < 0)
+                throw new EOFException("The list ended early");
+    }
+}
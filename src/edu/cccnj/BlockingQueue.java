@@ -0,0 +1,380 @@
+package edu.cccnj;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A Queue with a fixed capacity that any number of threads can put items into and take items out of. When it's full,
+ * enqueue waits for room. When it's empty, dequeue waits for an item.
+ *
+ * This is what you want between two stages of a pipeline. A plain Queue never fills up, so if the stage putting items
+ * in is faster than the stage taking them out, the Queue just keeps growing until the program runs out of memory.
+ * Here, a fast producer is forced to slow down to the speed of the consumer. That's called "backpressure". And a
+ * consumer with nothing to do sleeps until there's something in the Queue, instead of spinning around calling dequeue
+ * and getting null.
+ *
+ * The waiting is done with a ReentrantLock and two Conditions ("there's room now" and "there's an item now"), rather
+ * than synchronized and wait/notify. A thread waiting on a Condition parks without holding a monitor, so this works
+ * well with virtual threads, too.
+ *
+ * Taking the lock is the expensive part, so there are batch versions, enqueueAll and drainTo, which move as many items
+ * as they can each time they have the lock.
+ *
+ * Since null is how the non-blocking methods say "nothing there", null can't be enqueued.
+ */
+public class BlockingQueue implements Buffers.Buffer {
+
+    /**
+     * The items, in a circular array that never changes size.
+     */
+    private final Object[] contents;
+
+    /**
+     * The index of the front of the line.
+     */
+    private int head;
+
+    /**
+     * How many items are in the Queue.
+     */
+    private int size;
+
+    /**
+     * Only one thread can be changing the Queue at a time.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when there's an item to take.
+     */
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * Signalled when there's room for an item.
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Creates an empty Queue that can hold up to capacity items.
+     * @param capacity The most items the Queue will ever hold
+     */
+    public BlockingQueue(int capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("A BlockingQueue needs room for at least one item, got " + capacity);
+
+        contents = new Object[capacity];
+    }
+
+    /**
+     * Places an item at the back of the Queue, waiting for room if the Queue is full.
+     * @param item The item to enqueue. Can't be null.
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public void enqueue(Object item) throws InterruptedException {
+        checkNotNull(item);
+        lock.lockInterruptibly();
+
+        try {
+            while(size == contents.length)
+                notFull.await();
+
+            insert(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places an item at the back of the Queue, waiting up to the timeout for room if the Queue is full.
+     * @param item The item to enqueue. Can't be null.
+     * @param timeout How long to wait
+     * @param unit The unit timeout is in
+     * @return true if the item was enqueued, false if the time ran out
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public boolean enqueue(Object item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+
+        try {
+            while(size == contents.length) {
+                if(nanos <= 0)
+                    return false;
+
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            insert(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places an item at the back of the Queue if there's room, without waiting.
+     * @param item The item to enqueue. Can't be null.
+     * @return true if the item was enqueued, false if the Queue is full
+     */
+    public boolean tryEnqueue(Object item) {
+        checkNotNull(item);
+        lock.lock();
+
+        try {
+            if(size == contents.length)
+                return false;
+
+            insert(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places all of the items at the back of the Queue, in order, waiting for room as needed. Each time it gets the
+     * lock it puts in as many items as there's room for, and wakes the consumers once for the whole lot.
+     * @param items The items to enqueue. None of them can be null.
+     * @throws InterruptedException If the thread is interrupted while waiting. Some of the items may already be in.
+     */
+    public void enqueueAll(Object... items) throws InterruptedException {
+        for(Object item : items)
+            checkNotNull(item);
+
+        int done = 0;
+
+        while(done < items.length) {
+            lock.lockInterruptibly();
+
+            try {
+                while(size == contents.length)
+                    notFull.await();
+
+                int count = Math.min(items.length - done, contents.length - size);
+                int tail = index(size);
+                int firstPart = Math.min(count, contents.length - tail);
+
+                System.arraycopy(items, done, contents, tail, firstPart);
+                System.arraycopy(items, done + firstPart, contents, 0, count - firstPart);
+
+                size += count;
+                done += count;
+
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the item at the front of the Queue, waiting for one if the Queue is empty.
+     * @return The item at the front of the Queue
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public Object dequeue() throws InterruptedException {
+        lock.lockInterruptibly();
+
+        try {
+            while(size == 0)
+                notEmpty.await();
+
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the item at the front of the Queue, waiting up to the timeout for one if the Queue is empty.
+     * @param timeout How long to wait
+     * @param unit The unit timeout is in
+     * @return The item at the front of the Queue, or null if the time ran out
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public Object dequeue(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+
+        try {
+            while(size == 0) {
+                if(nanos <= 0)
+                    return null;
+
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the item at the front of the Queue if there is one, without waiting.
+     * @return The item at the front of the Queue, or null if the Queue is empty
+     */
+    public Object tryDequeue() {
+        lock.lock();
+
+        try {
+            return size == 0 ? null : extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to max items from the front of the Queue into batch, in order, without waiting. This takes the lock
+     * once for the whole batch, instead of once per item.
+     * @param batch Where to put the items
+     * @param max The most items to move
+     * @return How many items were moved
+     */
+    public int drainTo(Collection<Object> batch, int max) {
+        lock.lock();
+
+        try {
+            return drain(batch, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like drainTo(batch, max), but if the Queue is empty, waits up to the timeout for at least one item to show up.
+     * @param batch Where to put the items
+     * @param max The most items to move
+     * @param timeout How long to wait for the first item
+     * @param unit The unit timeout is in
+     * @return How many items were moved, which is 0 only if the time ran out
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public int drainTo(Collection<Object> batch, int max, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+
+        try {
+            while(size == 0) {
+                if(nanos <= 0)
+                    return 0;
+
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+
+            return drain(batch, max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The same as tryEnqueue: it doesn't wait for room.
+     * @return true if the item was enqueued, false if the Queue is full
+     */
+    @Override
+    public boolean add(Object item) {
+        return tryEnqueue(item);
+    }
+
+    /**
+     * The same as tryDequeue. Unlike java.util.concurrent.BlockingQueue.take, this never waits; use dequeue() for that.
+     * @return The item at the front of the Queue, or null if the Queue is empty
+     */
+    @Override
+    public Object take() {
+        return tryDequeue();
+    }
+
+    /**
+     * @return The item at the front of the Queue without taking it out, or null if the Queue is empty
+     */
+    @Override
+    public Object peek() {
+        lock.lock();
+
+        try {
+            return size == 0 ? null : contents[head];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return How many items are in the Queue right now
+     */
+    @Override
+    public int size() {
+        lock.lock();
+
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The most items the Queue will ever hold
+     */
+    public int capacity() {
+        return contents.length;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Everything below here must only be called while holding the lock.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void insert(Object item) {
+        contents[index(size)] = item;
+        size++;
+        notEmpty.signal();
+    }
+
+    private Object extract() {
+        Object item = contents[head];
+        contents[head] = null;
+        head = index(1);
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private int drain(Collection<Object> batch, int max) {
+        int count = Math.min(Math.max(max, 0), size);
+        int drained = 0;
+
+        // If batch.add throws, the items it already took are gone from the Queue, and the rest are still in it
+        try {
+            while(drained < count) {
+                batch.add(contents[head]);
+                contents[head] = null;
+                head = index(1);
+                drained++;
+            }
+        } finally {
+            size -= drained;
+
+            if(drained > 0)
+                notFull.signalAll();
+        }
+
+        return drained;
+    }
+
+    /**
+     * @return The index of the slot offset places after head, wrapping around the end of the array
+     */
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= contents.length ? i - contents.length : i;
+    }
+
+    private static void checkNotNull(Object item) {
+        if(item == null)
+            throw new NullPointerException("Can't enqueue null onto a BlockingQueue");
+    }
+}
@@ -0,0 +1,227 @@
+package edu.cccnj;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Numbers about how a Buffer is being used: how many items went in and came out, how deep it got, and how long items
+ * waited inside it (their "sojourn" time). Hand one to Buffers.makeInstrumented, and keep it to look at later.
+ *
+ * "Inserts" are enqueues for a Queue and pushes for a Stack; "removes" are dequeues and pops. An "empty remove" is a
+ * dequeue or pop that gave back null because there was nothing there, which usually means whatever is taking items
+ * out is faster than whatever is putting them in.
+ *
+ * The counts are LongAdders, which split a count over several cells when threads fight over it, so recording never
+ * slows down a busy Buffer just because something else is reading the numbers.
+ *
+ * There are two ways to read the numbers: snapshot(), from inside the program, or JMX, from outside of it. Calling
+ * register() makes them show up in JConsole or VisualVM under edu.cccnj, type Buffer.
+ *
+ * Buffers made with plain make() don't have any of this, and don't pay anything for it. For an instrumented Buffer, most
+ * of the cost is reading the clock (System.nanoTime) as each item goes in and comes out; see instrumentedQueue in
+ * BuffersBenchmark.
+ */
+public class BufferMetrics implements BufferMetricsMXBean {
+
+    private final String name;
+
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder removes = new LongAdder();
+    private final LongAdder emptyRemoves = new LongAdder();
+
+    /**
+     * The deepest the Buffer has been. Only the Buffer's own thread writes it.
+     */
+    private volatile long highWaterDepth;
+
+    private final LatencyHistogram sojourn = new LatencyHistogram();
+
+    /**
+     * The name registered with JMX, once register() is called.
+     */
+    private ObjectName objectName;
+
+    /**
+     * @param name What to call the Buffer, in JMX and in the snapshot
+     */
+    public BufferMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Everything BufferMetrics knows, at one moment. The numbers are read one after another while the Buffer may still
+     * be in use, so they can disagree with each other by an item or two.
+     */
+    public static final class Snapshot {
+        public final String name;
+        public final long inserts;
+        public final long removes;
+        public final long emptyRemoves;
+        public final long depth;
+        public final long highWaterDepth;
+        public final double sojournMeanNanos;
+        public final long sojournP50Nanos;
+        public final long sojournP99Nanos;
+        public final long sojournP999Nanos;
+        public final long sojournMaxNanos;
+
+        private Snapshot(BufferMetrics metrics) {
+            name = metrics.name;
+            inserts = metrics.getInserts();
+            removes = metrics.getRemoves();
+            emptyRemoves = metrics.getEmptyRemoves();
+            depth = Math.max(0, inserts - removes);
+            highWaterDepth = metrics.getHighWaterDepth();
+            sojournMeanNanos = metrics.getSojournMeanNanos();
+            sojournP50Nanos = metrics.getSojournP50Nanos();
+            sojournP99Nanos = metrics.getSojournP99Nanos();
+            sojournP999Nanos = metrics.getSojournP999Nanos();
+            sojournMaxNanos = metrics.getSojournMaxNanos();
+        }
+
+        public String toString() {
+            return name + ": inserts=" + inserts + " removes=" + removes + " emptyRemoves=" + emptyRemoves
+                    + " depth=" + depth + " highWater=" + highWaterDepth
+                    + " sojourn(ns) mean=" + Math.round(sojournMeanNanos) + " p50=" + sojournP50Nanos
+                    + " p99=" + sojournP99Nanos + " p99.9=" + sojournP999Nanos + " max=" + sojournMaxNanos;
+        }
+    }
+
+    /**
+     * @return Every number at once
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * @return The sojourn times, for any percentile the snapshot doesn't have
+     */
+    public LatencyHistogram sojourn() {
+        return sojourn;
+    }
+
+    /**
+     * Makes the numbers visible through JMX, as edu.cccnj:type=Buffer,name=(the name).
+     * @return This BufferMetrics
+     * @throws IllegalStateException If something else is already registered with that name
+     */
+    public synchronized BufferMetrics register() {
+        if(objectName != null)
+            return this;
+
+        try {
+            ObjectName objectName = new ObjectName("edu.cccnj:type=Buffer,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch(JMException e) {
+            throw new IllegalStateException("Couldn't register " + name + " with JMX", e);
+        }
+
+        return this;
+    }
+
+    /**
+     * Takes the numbers back out of JMX. Do this when you're done with the Buffer, or the numbers (and this object) stay
+     * around for as long as the program runs.
+     */
+    public synchronized void unregister() {
+        if(objectName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch(JMException e) {
+            throw new IllegalStateException("Couldn't unregister " + name + " from JMX", e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Called by the instrumented Buffers.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param depth How deep the Buffer is now that the item is in
+     */
+    void inserted(int depth) {
+        inserts.increment();
+
+        if(depth > highWaterDepth)
+            highWaterDepth = depth;
+    }
+
+    /**
+     * @param sojournNanos How long the item was in the Buffer
+     */
+    void removed(long sojournNanos) {
+        removes.increment();
+        sojourn.record(sojournNanos);
+    }
+
+    void removedNothing() {
+        emptyRemoves.increment();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // The JMX attributes.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    @Override
+    public long getRemoves() {
+        return removes.sum();
+    }
+
+    @Override
+    public long getEmptyRemoves() {
+        return emptyRemoves.sum();
+    }
+
+    @Override
+    public long getDepth() {
+        return Math.max(0, inserts.sum() - removes.sum());
+    }
+
+    @Override
+    public long getHighWaterDepth() {
+        return highWaterDepth;
+    }
+
+    @Override
+    public double getSojournMeanNanos() {
+        return sojourn.mean();
+    }
+
+    @Override
+    public long getSojournP50Nanos() {
+        return sojourn.percentile(50);
+    }
+
+    @Override
+    public long getSojournP99Nanos() {
+        return sojourn.percentile(99);
+    }
+
+    @Override
+    public long getSojournP999Nanos() {
+        return sojourn.percentile(99.9);
+    }
+
+    @Override
+    public long getSojournMaxNanos() {
+        return sojourn.max();
+    }
+}
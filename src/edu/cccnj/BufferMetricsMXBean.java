@@ -0,0 +1,30 @@
+package edu.cccnj;
+
+/**
+ * What a BufferMetrics shows through JMX, in tools like JConsole and VisualVM. Each getter shows up as an attribute
+ * with the same name, minus the "get". See BufferMetrics for what each one means.
+ */
+public interface BufferMetricsMXBean {
+
+    String getName();
+
+    long getInserts();
+
+    long getRemoves();
+
+    long getEmptyRemoves();
+
+    long getDepth();
+
+    long getHighWaterDepth();
+
+    double getSojournMeanNanos();
+
+    long getSojournP50Nanos();
+
+    long getSojournP99Nanos();
+
+    long getSojournP999Nanos();
+
+    long getSojournMaxNanos();
+}
@@ -3,7 +3,20 @@ package edu.cccnj;
 // Sorry for the essay
 // A lot of the comments can be skipped, but make sure to read the Design Notes at the bottom.
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Buffers are data structures which allow information to be stored in some order. The term buffers isn't used for this
@@ -41,12 +54,46 @@ import java.util.ArrayList;
 public class Buffers{
 
     /**
-     * Used for polymorphic purposes in the Buffers convneince methods.
-     * Using an interface for the sole purposes of Subtyping is referred to as
-     * "Marker Interface Pattern", one of thousands of software design patterns common in the world.
+     * What every kind of Buffer can do, so you can use whatever Buffers.make gives you without casting it.
+     *
+     * This used to be a "Marker Interface", with no methods at all; it only existed so make() had something to return.
+     * (See the design notes at the bottom of this file, which said it should grow these methods.)
+     *
+     * Each kind of Buffer decides what "add" and "take" mean for it: a Queue takes from the front, a Stack takes from
+     * the top, and a PriorityQueue takes the smallest item. They keep their own names for these too (enqueue, push, and
+     * so on), which are the same thing.
      */
     public interface Buffer {
 
+        /**
+         * Puts an item in the Buffer.
+         * @param item The item to put in
+         * @return true if it went in, false if the Buffer is full
+         */
+        boolean add(Object item);
+
+        /**
+         * Removes the next item from the Buffer, whichever one that is for this kind of Buffer. Never waits.
+         * @return The item, or null if the Buffer is empty
+         */
+        Object take();
+
+        /**
+         * @return The item take would give back next, without removing it, or null if the Buffer is empty
+         */
+        Object peek();
+
+        /**
+         * @return How many items are in the Buffer, or Integer.MAX_VALUE if there are more than that
+         */
+        int size();
+
+        /**
+         * @return true if there's nothing in the Buffer
+         */
+        default boolean isEmpty() {
+            return size() == 0;
+        }
     }
 
     /**
@@ -108,18 +155,48 @@ probably even do it.
 
 java--
      */
-    public static class Stack implements Buffer{
+    public static class Stack implements Buffer, Iterable<Object> {
+
+        /**
+         * How many slots a Stack gets if you don't ask for a size.
+         */
+        private static final int DEFAULT_CAPACITY = 16;
 
         /**
-         * The actual contents of the stack
+         * The actual contents of the stack. The bottom is index 0, and the top is index size - 1. The rest of the
+         * array is room to grow.
+         *
+         * This used to be an ArrayList. A plain array does the same job, and lets pushAll and popN move a whole batch
+         * of items with one System.arraycopy.
          */
-        private ArrayList<Object> contents;
+        private Object[] contents;
+
+        /**
+         * How many items are on the Stack.
+         */
+        private int size;
+
+        /**
+         * Counts every push and pop, so iterators can tell if the Stack changed under them.
+         */
+        private int modCount;
 
         /**
          * Initialize the stack.
          */
         public Stack() {
-            contents = new ArrayList<>();
+            this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Creates a Stack with room for initialCapacity items before it has to grow.
+         * @param initialCapacity How many items to make room for
+         */
+        public Stack(int initialCapacity) {
+            if(initialCapacity < 0)
+                throw new IllegalArgumentException("Capacity can't be negative, got " + initialCapacity);
+
+            contents = new Object[Math.max(initialCapacity, 1)];
         }
 
         /**
@@ -128,7 +205,25 @@ java--
          * @param obj
          */
         public void push(Object obj) {
-            contents.add(obj);
+            if(size == contents.length)
+                contents = Arrays.copyOf(contents, size * 2);
+
+            contents[size++] = obj;
+            modCount++;
+        }
+
+        /**
+         * Pushes every one of the items, in order, so the last one ends up on top. The array grows at most once, and
+         * the items are copied in with one System.arraycopy.
+         * @param items The items to push
+         */
+        public void pushAll(Object... items) {
+            if(size + items.length > contents.length)
+                contents = Arrays.copyOf(contents, Math.max(size + items.length, contents.length * 2));
+
+            System.arraycopy(items, 0, contents, size, items.length);
+            size += items.length;
+            modCount++;
         }
 
         /**
@@ -138,44 +233,269 @@ java--
         public Object pop() {
 
             // If there's nothing in the list, we have to return null or throw an exception. This is just easier for now.
-            if(contents.size() == 0)
+            if(size == 0)
                 return null;
 
-            // Get the last item
-            Object item = contents.get(contents.size() - 1);
-
-            // Take the last item off
-            contents.remove(contents.size() - 1);
+            // Take the last item off, and null out its slot so the array doesn't keep it from being garbage collected
+            Object item = contents[--size];
+            contents[size] = null;
+            modCount++;
 
             return item;
         }
+
+        /**
+         * Pops up to n items at once.
+         * @param n The most items to pop
+         * @return The items, in the order pop would have given them back (the top first). If the Stack had fewer than
+         * n items, the array is only as long as however many there were.
+         */
+        public Object[] popN(int n) {
+            int count = Math.min(Math.max(n, 0), size);
+            Object[] items = new Object[count];
+
+            // The top count items, copied out in one go, then turned around so the top comes first
+            System.arraycopy(contents, size - count, items, 0, count);
+
+            for(int i = 0, j = count - 1; i < j; i++, j--) {
+                Object swap = items[i];
+                items[i] = items[j];
+                items[j] = swap;
+            }
+
+            Arrays.fill(contents, size - count, size, null);
+            size -= count;
+            modCount++;
+
+            return items;
+        }
+
+        /**
+         * Pops up to max items, handing each one to the consumer, in the order pop would have given them back.
+         * @param consumer What to do with each item
+         * @param max The most items to pop
+         * @return How many items were popped
+         */
+        public int drainTo(Consumer<Object> consumer, int max) {
+            int count = Math.min(Math.max(max, 0), size);
+            int popped = 0;
+
+            // If the consumer throws, the items it already took are off the Stack, and the rest are still on it
+            try {
+                while(popped < count) {
+                    consumer.accept(contents[size - 1 - popped]);
+                    contents[size - 1 - popped] = null;
+                    popped++;
+                }
+            } finally {
+                size -= popped;
+                modCount++;
+            }
+
+            return popped;
+        }
+
+        /**
+         * @return The item on top of the Stack without taking it off, or null if the Stack is empty
+         */
+        @Override
+        public Object peek() {
+            return size == 0 ? null : contents[size - 1];
+        }
+
+        /**
+         * The same as push. A Stack never fills up.
+         * @return true
+         */
+        @Override
+        public boolean add(Object item) {
+            push(item);
+            return true;
+        }
+
+        /**
+         * The same as pop.
+         */
+        @Override
+        public Object take() {
+            return pop();
+        }
+
+        /**
+         * @return How many items are on the Stack
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return true if there's nothing on the Stack
+         */
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Iterates over the Stack without changing it, in the order pop would give the items back: most recent first.
+         * The Iterator is fail-fast; pushing or popping while iterating makes it throw ConcurrentModificationException.
+         * @return The Iterator
+         */
+        @Override
+        public Iterator<Object> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        /**
+         * @return A Spliterator over the Stack, most recent item first. See IndexSpliterator.
+         */
+        @Override
+        public Spliterator<Object> spliterator() {
+            Object[] array = contents;
+            int top = size - 1;
+            return new IndexSpliterator(i -> array[top - i], 0, size, () -> modCount);
+        }
+
+        /**
+         * @return A sequential java.util.stream.Stream of the items, most recent first
+         */
+        public Stream<Object> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * @return A parallel java.util.stream.Stream of the items, most recent first
+         */
+        public Stream<Object> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
     }
 
     /**
      * The queue is another essential data structure, albeit less important than Stack. It's FIFO, meaning that it
      * works exaclty like a line at the bank would work
+     *
+     * The Queue used to be an ArrayList, where dequeue took the item at index 0 off. The problem is that removing the
+     * first item of an ArrayList shifts every other item down a slot, so emptying a Queue of n items took n^2 steps.
+     *
+     * Now the Queue is a "ring buffer", or circular array. Instead of moving the items, we move where the front of the
+     * line is. head is the index of the front of the line, and the back of the line is size slots after it. When the
+     * back of the line runs off the end of the array, it wraps around to index 0, like the hands of a clock. Both
+     * enqueue and dequeue just move an index, so they're O(1).
+     *
+     * The array's length is always a power of two. That way, "wrap around" is (index & (length - 1)), which is much
+     * cheaper than (index % length).
      */
-    public static class Queue implements Buffer {
+    public static class Queue implements Buffer, Iterable<Object> {
+
+        /**
+         * How many slots a Queue gets if you don't ask for a size.
+         */
+        private static final int DEFAULT_CAPACITY = 16;
 
         /**
-         * The contents of the Queue
+         * The contents of the Queue. The length is always a power of two.
          */
-        private ArrayList<Object> contents;
+        private Object[] contents;
+
+        /**
+         * The index of the front of the line, the item dequeue will give back next.
+         */
+        private int head;
+
+        /**
+         * How many items are in the Queue.
+         */
+        private int size;
+
+        /**
+         * The most items the Queue will ever hold, or -1 if it grows whenever it needs to.
+         */
+        private final int bound;
+
+        /**
+         * The smallest the array is ever shrunk down to.
+         */
+        private final int minimumCapacity;
+
+        /**
+         * Whether the array gets smaller again when the Queue empties out.
+         */
+        private boolean shrinking;
+
+        /**
+         * Counts every change to the Queue, so iterators can tell if the Queue changed under them.
+         */
+        private int modCount;
 
         /**
          * Constructor for the queue, will just initialize the instance variables.
          */
         public Queue() {
-            contents = new ArrayList<>();
+            this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Creates a Queue with room for initialCapacity items before it has to grow. If you know about how many items
+         * are going into the Queue, this saves the work of growing it along the way.
+         * @param initialCapacity How many items to make room for
+         */
+        public Queue(int initialCapacity) {
+            this(initialCapacity, false);
+        }
+
+        /**
+         * Creates a Queue with room for capacity items. If bounded is true, the Queue never grows past that, and
+         * enqueue gives back false when the Queue is full. That's useful when something is putting items in faster than
+         * they're being taken out, and you'd rather find out than run out of memory.
+         * @param capacity How many items to make room for
+         * @param bounded Whether capacity is a hard limit
+         */
+        public Queue(int capacity, boolean bounded) {
+            if(capacity < 0)
+                throw new IllegalArgumentException("Capacity can't be negative, got " + capacity);
+
+            if(bounded && capacity == 0)
+                throw new IllegalArgumentException("A bounded Queue needs room for at least one item");
+
+            contents = new Object[powerOfTwoAtLeast(capacity)];
+            minimumCapacity = contents.length;
+            bound = bounded ? capacity : -1;
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * Turns shrinking on or off. With shrinking on, when the Queue drops to a quarter full, the array is cut in
+         * half (but never smaller than it started). This gives memory back after a burst of items, at the cost of some
+         * copying if the Queue keeps filling back up. It's off by default.
+         * @param shrinking Whether the Queue should shrink
+         */
+        public void setShrinking(boolean shrinking) {
+            this.shrinking = shrinking;
         }
 
         /**
          * Places an item in the queue. Since Queue is FIFO, this will actually put it at the end of the list,
          * but when we get an item from the list, it takes it from the front.
+         *
+         * If the array is full, it's copied into one twice as big, so on average enqueue is still O(1). A bounded Queue
+         * doesn't grow; it gives back false instead.
          * @param item The item to put on the list.
+         * @return true if the item was added, false if the Queue is bounded and full
          */
-        public void enqueue(Object item) {
-            contents.add(item);
+        public boolean enqueue(Object item) {
+            if(size == bound)
+                return false;
+
+            if(size == contents.length)
+                resize(contents.length * 2);
+
+            contents[(head + size) & (contents.length - 1)] = item;
+            size++;
+            modCount++;
+            return true;
         }
 
         /**
@@ -185,14 +505,267 @@ java--
         public Object dequeue() {
 
             // Nothing in the queue? Returning null here prevents an ArrayIndexException later on
-            if(contents.size() == 0)
+            if(size == 0)
                 return null;
 
-            Object item = contents.get(0);
-            contents.remove(0);
+            Object item = contents[head];
+
+            // Null out the slot, otherwise the array keeps the item from being garbage collected
+            contents[head] = null;
+            head = (head + 1) & (contents.length - 1);
+            size--;
+            modCount++;
+
+            if(shrinking && size <= contents.length / 4 && contents.length / 2 >= minimumCapacity)
+                resize(contents.length / 2);
 
             return item;
         }
+
+        /**
+         * @return The item at the front of the Queue without taking it out, or null if the Queue is empty
+         */
+        @Override
+        public Object peek() {
+            return size == 0 ? null : contents[head];
+        }
+
+        /**
+         * The same as enqueue.
+         */
+        @Override
+        public boolean add(Object item) {
+            return enqueue(item);
+        }
+
+        /**
+         * The same as dequeue.
+         */
+        @Override
+        public Object take() {
+            return dequeue();
+        }
+
+        /**
+         * @return How many items are in the Queue
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return true if there's nothing in the Queue
+         */
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Iterates over the Queue without changing it, front of the line first. The Iterator is fail-fast; enqueueing
+         * or dequeueing while iterating makes it throw ConcurrentModificationException.
+         * @return The Iterator
+         */
+        @Override
+        public Iterator<Object> iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        /**
+         * @return A Spliterator over the Queue, front of the line first. See IndexSpliterator.
+         */
+        @Override
+        public Spliterator<Object> spliterator() {
+            Object[] array = contents;
+            int start = head;
+            return new IndexSpliterator(i -> array[(start + i) & (array.length - 1)], 0, size, () -> modCount);
+        }
+
+        /**
+         * @return A sequential java.util.stream.Stream of the items, front of the line first
+         */
+        public Stream<Object> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        /**
+         * @return A parallel java.util.stream.Stream of the items, front of the line first
+         */
+        public Stream<Object> parallelStream() {
+            return StreamSupport.stream(spliterator(), true);
+        }
+
+        /**
+         * Puts every one of the items in the Queue, in order, growing it at most once and copying them in with
+         * System.arraycopy. A bounded Queue only takes as many as it has room for.
+         * @param items The items to put in the Queue
+         * @return How many of the items went in, which is less than items.length only if the Queue is bounded and
+         * filled up
+         */
+        public int enqueueAll(Object... items) {
+            int count = bound < 0 ? items.length : Math.min(items.length, bound - size);
+
+            if(size + count > contents.length)
+                resize(powerOfTwoAtLeast(size + count));
+
+            int tail = (head + size) & (contents.length - 1);
+            int firstPart = Math.min(count, contents.length - tail);
+
+            // The part that fits before the end of the array, then whatever wraps around to the start
+            System.arraycopy(items, 0, contents, tail, firstPart);
+            System.arraycopy(items, firstPart, contents, 0, count - firstPart);
+            size += count;
+            modCount++;
+
+            return count;
+        }
+
+        /**
+         * Dequeues up to max items, handing each one to the consumer, front of the line first. If the Queue is
+         * shrinking, it's shrunk once at the end rather than along the way.
+         * @param consumer What to do with each item
+         * @param max The most items to dequeue
+         * @return How many items were dequeued
+         */
+        public int drainTo(Consumer<Object> consumer, int max) {
+            int count = Math.min(Math.max(max, 0), size);
+            int mask = contents.length - 1;
+            int dequeued = 0;
+
+            // If the consumer throws, the items it already took are out of the Queue, and the rest are still in it
+            try {
+                while(dequeued < count) {
+                    consumer.accept(contents[head]);
+                    contents[head] = null;
+                    head = (head + 1) & mask;
+                    dequeued++;
+                }
+            } finally {
+                size -= dequeued;
+                modCount++;
+            }
+
+            if(shrinking)
+                while(size <= contents.length / 4 && contents.length / 2 >= minimumCapacity)
+                    resize(contents.length / 2);
+
+            return dequeued;
+        }
+
+        /**
+         * Moves the items into a new array of the given length, with the front of the line at index 0.
+         * @param capacity The new length, a power of two that's at least size
+         */
+        private void resize(int capacity) {
+            Object[] bigger = new Object[capacity];
+            int firstPart = Math.min(size, contents.length - head);
+
+            System.arraycopy(contents, head, bigger, 0, firstPart);
+            System.arraycopy(contents, 0, bigger, firstPart, size - firstPart);
+
+            contents = bigger;
+            head = 0;
+        }
+    }
+
+    /**
+     * A Spliterator for the array-based Buffers. The Buffer hands it a way to get the i-th item (in the order the Buffer
+     * would give them back), and it walks positions [from, to). Since it can jump straight to any position, splitting
+     * is just cutting the range in half, so it's SIZED and SUBSIZED all the way down.
+     *
+     * It's fail-fast: it remembers the Buffer's modCount when it's made, and throws ConcurrentModificationException if
+     * that ever changes.
+     */
+    static final class IndexSpliterator implements Spliterator<Object> {
+
+        /**
+         * Gets the item at a position.
+         */
+        interface Items {
+            Object at(int position);
+        }
+
+        private final Items items;
+        private int from;
+        private final int to;
+        private final IntSupplier modCount;
+        private final int expectedModCount;
+
+        IndexSpliterator(Items items, int from, int to, IntSupplier modCount) {
+            this(items, from, to, modCount, modCount.getAsInt());
+        }
+
+        private IndexSpliterator(Items items, int from, int to, IntSupplier modCount, int expectedModCount) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.modCount = modCount;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if(from >= to)
+                return false;
+
+            checkForChanges();
+            action.accept(items.at(from++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Object> action) {
+            checkForChanges();
+
+            for(; from < to; from++)
+                action.accept(items.at(from));
+
+            checkForChanges();
+        }
+
+        @Override
+        public Spliterator<Object> trySplit() {
+            int middle = (from + to) >>> 1;
+
+            if(middle <= from)
+                return null;
+
+            // The front half goes to the new Spliterator, so the order stays front-then-back
+            Spliterator<Object> front = new IndexSpliterator(items, from, middle, modCount, expectedModCount);
+            from = middle;
+            return front;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        private void checkForChanges() {
+            if(modCount.getAsInt() != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * @param n A number that isn't negative
+     * @return The smallest power of two that's at least n (and at least 1)
+     */
+    static int powerOfTwoAtLeast(int n) {
+        if(n <= 1)
+            return 1;
+
+        int power = Integer.highestOneBit(n - 1) << 1;
+        if(power <= 0)
+            throw new IllegalArgumentException("Can't make room for " + n + " items");
+
+        return power;
     }
 
     /*
@@ -205,11 +778,49 @@ java--
      */
     public enum Types {
         Queue,
-        Stack
+        Stack,
+
+        // A Queue that gives back the smallest item first (see PriorityQueue), and one that can be added to and taken
+        // from at both ends (see Deque).
+        PriorityQueue,
+        Deque,
+
+        // Lock-free versions, which any number of threads can use at once. See ConcurrentQueue and ConcurrentStack.
+        ConcurrentQueue,
+        ConcurrentStack,
+
+        // A Queue with a capacity, where enqueue waits for room and dequeue waits for an item. See BlockingQueue.
+        BlockingQueue,
+
+        // A very fast Queue for exactly one producer thread and one consumer thread. See SpscQueue.
+        SpscQueue,
+
+        // A deque that one thread pushes and pops at the bottom of, while any other thread steals from the top. See
+        // WorkStealingDeque, and WorkStealingExecutor, which runs tasks on them.
+        WorkStealingDeque,
+
+        // A Queue of the last N items, or the last T milliseconds of them, that always knows their sum (or min, or max,
+        // ...). It needs a way to combine items, so it's made with makeWindowed or makeTimeWindowed instead of make.
+        // See WindowedQueue.
+        WindowedQueue,
+
+        // Queues and Stacks of fixed-size records, kept outside of the Java heap. These need a RecordLayout, so they're
+        // made with makeOffHeap instead of make. See OffHeapQueue and OffHeapStack.
+        OffHeapQueue,
+        OffHeapStack,
+
+        // A Queue of byte[] records kept in memory-mapped files, so it survives the program stopping. It needs a
+        // directory, so it's made with makeDurable instead of make. See DurableQueue.
+        DurableQueue
     }
 
     /**
-     * Creates a new Buffer. The Buffer can either be a Queue or a Stack. It also provides
+     * How much a BlockingQueue or SpscQueue can hold when it's made with make() instead of makeBounded().
+     */
+    public static final int DEFAULT_BOUNDED_CAPACITY = 1024;
+
+    /**
+     * Creates a new Buffer, of any of the kinds in Types. It also provides
      * some data that will be placed in the data structure.
      * @param bufferType The type of the structure
      * @param objects The objects to place into the queue
@@ -225,33 +836,228 @@ java--
             // The user wants a Queue
             case Queue:
 
-                product = new Buffers.Queue();
-                for(Object i : objects) // Add all the objects to the Queue
-                    ((Queue)product).enqueue(i);
+                // Make room for all of the objects up front, then copy them in at once
+                product = new Buffers.Queue(objects.length);
+                ((Queue)product).enqueueAll(objects);
                 break;
 
             case Stack:
-                product = new Stack();
-                for(Object i: objects) // Add all the objects to the Stack
-                    ((Stack)product).push(i);
+                product = new Stack(objects.length);
+                ((Stack)product).pushAll(objects); // Add all the objects to the Stack at once
+                break;
+
+            // Natural ordering; use makePriority for a Comparator. All of the objects go in at once, in O(n).
+            case PriorityQueue:
+                product = new PriorityQueue();
+                ((PriorityQueue)product).addAll(objects);
+                break;
+
+            case Deque:
+                product = new Deque(objects.length);
+                for(Object i : objects)
+                    ((Deque)product).addLast(i);
+                break;
+
+            case ConcurrentQueue:
+                product = new ConcurrentQueue();
+                for(Object i : objects)
+                    ((ConcurrentQueue)product).enqueue(i);
+                break;
+
+            case ConcurrentStack:
+                product = new ConcurrentStack();
+                for(Object i : objects)
+                    ((ConcurrentStack)product).push(i);
+                break;
+
+            // The thread that calls make becomes the owner
+            case WorkStealingDeque:
+                product = new WorkStealingDeque(objects.length);
+                for(Object i : objects)
+                    ((WorkStealingDeque)product).push(i);
+                break;
+
+            case BlockingQueue:
+            case SpscQueue:
+                product = makeBounded(bufferType, Math.max(DEFAULT_BOUNDED_CAPACITY, objects.length), objects);
                 break;
+
+            case OffHeapQueue:
+            case OffHeapStack:
+                throw new IllegalArgumentException(bufferType + " holds records, not objects. Use makeOffHeap.");
+
+            case DurableQueue:
+                throw new IllegalArgumentException(bufferType + " is kept in files. Use makeDurable.");
+
+            case WindowedQueue:
+                throw new IllegalArgumentException(bufferType + " needs a way to combine items. Use makeWindowed.");
         }
 
         return product;
     }
 
+    /**
+     * Creates a PriorityQueue that orders items by the comparator, and places the objects into it. The objects all go in
+     * at once, in O(n), rather than one at a time.
+     * @param comparator Decides which item is smaller, and so comes out first
+     * @param objects The objects to place into the PriorityQueue
+     * @return The PriorityQueue
+     */
+    public static PriorityQueue makePriority(Comparator<?> comparator, Object... objects) {
+        PriorityQueue queue = new PriorityQueue(comparator);
+        queue.addAll(objects);
+        return queue;
+    }
+
+    /**
+     * Creates an empty WindowedQueue that holds the last maxCount items, and keeps their aggregate.
+     * @param combine Combines two items (older on the left) into one, like (x, y) -> x + y or Math::max. Has to be
+     *                associative.
+     * @param identity The aggregate of an empty window, like 0 for a sum
+     * @param maxCount The most items in the window
+     * @param <T> The type of item
+     * @return The WindowedQueue
+     */
+    public static <T> WindowedQueue<T> makeWindowed(BinaryOperator<T> combine, T identity, int maxCount) {
+        return new WindowedQueue<T>(combine, identity, maxCount);
+    }
+
+    /**
+     * Creates an empty WindowedQueue that holds the items from the last maxAge of time, and keeps their aggregate.
+     * @param combine Combines two items (older on the left) into one. Has to be associative.
+     * @param identity The aggregate of an empty window
+     * @param maxAge How old an item can get before it leaves the window
+     * @param unit The unit of maxAge
+     * @param <T> The type of item
+     * @return The WindowedQueue
+     */
+    public static <T> WindowedQueue<T> makeTimeWindowed(BinaryOperator<T> combine, T identity, long maxAge, TimeUnit unit) {
+        return new WindowedQueue<T>(combine, identity, maxAge, unit);
+    }
+
+    /**
+     * Creates an empty off-heap Buffer of records.
+     * @param bufferType OffHeapQueue or OffHeapStack
+     * @param layout The shape of every record
+     * @param capacity How many records to make room for. It's rounded up to a power of two.
+     * @return The off-heap Buffer
+     */
+    public static Buffer makeOffHeap(Types bufferType, RecordLayout layout, long capacity) {
+
+        switch(bufferType) {
+
+            case OffHeapQueue:
+                return new OffHeapQueue(layout, capacity);
+
+            case OffHeapStack:
+                return new OffHeapStack(layout, capacity);
+
+            default:
+                throw new IllegalArgumentException(bufferType + " isn't an off-heap Buffer");
+        }
+    }
+
+    /**
+     * Creates a Queue or Stack that keeps numbers about how it's being used (see BufferMetrics), and places the objects
+     * into it. Everything else is the same as make(). The objects count as inserts.
+     *
+     * Instrumenting is opt-in: a Buffer from make() has none of this code in it, so it costs nothing unless you ask.
+     * @param bufferType Queue or Stack
+     * @param metrics Where to keep the numbers. Call metrics.register() to see them through JMX.
+     * @param objects The objects to place into the Buffer
+     * @return An InstrumentedQueue or InstrumentedStack
+     */
+    public static Buffer makeInstrumented(Types bufferType, BufferMetrics metrics, Object... objects) {
+
+        switch(bufferType) {
+
+            case Queue:
+                InstrumentedQueue queue = new InstrumentedQueue(metrics, objects.length, false);
+                for(Object i : objects)
+                    queue.enqueue(i);
+                return queue;
+
+            case Stack:
+                InstrumentedStack stack = new InstrumentedStack(metrics);
+                for(Object i : objects)
+                    stack.push(i);
+                return stack;
+
+            default:
+                throw new IllegalArgumentException(bufferType + " can't be instrumented");
+        }
+    }
+
+    /**
+     * Opens a DurableQueue in the directory, with DEFAULT_SEGMENT_SIZE segments, picking up wherever it was left.
+     * @param directory Where the Queue's files are kept. It's created if it doesn't exist.
+     * @param sync How often to force changes to disk
+     * @return The DurableQueue
+     * @throws IOException If the files can't be read or written
+     */
+    public static DurableQueue makeDurable(Path directory, DurableQueue.Sync sync) throws IOException {
+        return makeDurable(directory, DurableQueue.DEFAULT_SEGMENT_SIZE, sync);
+    }
+
+    /**
+     * Opens a DurableQueue in the directory, picking up wherever it was left.
+     * @param directory Where the Queue's files are kept. It's created if it doesn't exist.
+     * @param segmentSize How big each segment file is
+     * @param sync How often to force changes to disk
+     * @return The DurableQueue
+     * @throws IOException If the files can't be read or written
+     */
+    public static DurableQueue makeDurable(Path directory, int segmentSize, DurableQueue.Sync sync) throws IOException {
+        return new DurableQueue(directory, segmentSize, sync);
+    }
+
+    /**
+     * Creates a Buffer that will never hold more than capacity items, and places the objects into it. Only the kinds
+     * of Buffer that can be bounded are allowed: Queue and SpscQueue (whose enqueue gives back false when they're full)
+     * and BlockingQueue (whose enqueue waits when it's full). An SpscQueue rounds its capacity up to a power of two.
+     *
+     * This isn't just another make(), because make(Types.Queue, 5, 6, 7) would be ambiguous: is 5 the capacity, or
+     * the first object?
+     * @param bufferType The type of the structure
+     * @param capacity The most items the Buffer will hold
+     * @param objects The objects to place into the Buffer. There can't be more than capacity of them.
+     * @return The bounded Buffer
+     */
+    public static Buffer makeBounded(Types bufferType, int capacity, Object... objects) {
+
+        if(objects.length > capacity)
+            throw new IllegalArgumentException(objects.length + " objects won't fit in a capacity of " + capacity);
+
+        switch(bufferType) {
+
+            case Queue:
+                Queue queue = new Queue(capacity, true);
+                queue.enqueueAll(objects);
+                return queue;
+
+            case BlockingQueue:
+                BlockingQueue blockingQueue = new BlockingQueue(capacity);
+                for(Object i : objects)
+                    blockingQueue.tryEnqueue(i);
+                return blockingQueue;
+
+            case SpscQueue:
+                SpscQueue spscQueue = new SpscQueue(capacity);
+                spscQueue.enqueueAll(objects, 0, objects.length);
+                return spscQueue;
+
+            default:
+                throw new IllegalArgumentException(bufferType + " can't be bounded");
+        }
+    }
+
     /**
      * Makes an empty Buffer
-     * @param bufferType The type of Buffer (Stack or Queue) you want to make
+     * @param bufferType The type of Buffer you want to make
      * @return The empty Buffer
      */
     public static Buffer make(Types bufferType) {
-
-        // We can use just an if-else because there are only two possible types
-        if(bufferType == Types.Queue)
-            return new Queue();
-        else
-            return new Stack();
+        return make(bufferType, new Object[0]);
     }
 }
 
@@ -288,6 +1094,10 @@ The best design that I can think of to make these structures better would be:
 
 ----------------------------------
 
+(Later: the Buffer interface did get its methods, add, take, peek and size. The factory stayed in this file.)
+
+----------------------------------
+
 Software design is important. All good programmers eventually stop being programmers, and become strictly Technical Leads,
 Software Engineers, etc. whose entire job description is software design. They usually make well over $200K/year, because
 very few have an eye for proper design.
@@ -0,0 +1,114 @@
+package edu.cccnj;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns items into bytes and back, so a LinkedList can be written out with writeTo and read back in with readFrom.
+ *
+ * A LinkedList can hold anything, so it can't know on its own how to write its items. A Codec is how you tell it.
+ * There are Codecs below for the common types, and for your own types you write one.
+ *
+ * The list takes care of the framing: each item is written after its length, so a Codec never has to say where an item
+ * ends, and null items never reach the Codec at all.
+ * @param <T> The type of item this Codec handles
+ */
+public interface Codec<T> {
+
+    /**
+     * @param item The item that's about to be written. Never null.
+     * @return The most bytes write could possibly take for it. Saying too much just wastes a little room in the buffer;
+     * saying too little is an error.
+     */
+    int maxSize(T item);
+
+    /**
+     * Writes the item into out, starting at its position, and moves the position past it.
+     * @param item The item to write. Never null.
+     * @param out Where to write it. There are at least maxSize(item) bytes of room.
+     */
+    void write(T item, ByteBuffer out);
+
+    /**
+     * Reads an item back out of in, starting at its position. It's fine to leave the position anywhere; the list moves
+     * it past the item afterwards.
+     * @param in Where to read from
+     * @param length How many bytes write wrote for this item
+     * @return The item
+     */
+    T read(ByteBuffer in, int length);
+
+    /**
+     * Writes Integers as 4 bytes each.
+     */
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        public int maxSize(Integer item) {
+            return Integer.BYTES;
+        }
+
+        public void write(Integer item, ByteBuffer out) {
+            out.putInt(item);
+        }
+
+        public Integer read(ByteBuffer in, int length) {
+            return in.getInt();
+        }
+    };
+
+    /**
+     * Writes Longs as 8 bytes each.
+     */
+    Codec<Long> LONG = new Codec<Long>() {
+        public int maxSize(Long item) {
+            return Long.BYTES;
+        }
+
+        public void write(Long item, ByteBuffer out) {
+            out.putLong(item);
+        }
+
+        public Long read(ByteBuffer in, int length) {
+            return in.getLong();
+        }
+    };
+
+    /**
+     * Writes Doubles as 8 bytes each.
+     */
+    Codec<Double> DOUBLE = new Codec<Double>() {
+        public int maxSize(Double item) {
+            return Double.BYTES;
+        }
+
+        public void write(Double item, ByteBuffer out) {
+            out.putDouble(item);
+        }
+
+        public Double read(ByteBuffer in, int length) {
+            return in.getDouble();
+        }
+    };
+
+    /**
+     * Writes Strings as UTF-8.
+     */
+    Codec<String> STRING = new Codec<String>() {
+        public int maxSize(String item) {
+            // No char takes more than 3 bytes of UTF-8; the ones that take 4 come in pairs
+            return item.length() * 3;
+        }
+
+        public void write(String item, ByteBuffer out) {
+            out.put(item.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String read(ByteBuffer in, int length) {
+            if(in.hasArray())
+                return new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
@@ -0,0 +1,194 @@
+package edu.cccnj;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A Queue that any number of threads can enqueue to and dequeue from at the same time, without locks. This is the
+ * "Michael-Scott queue", from Maged Michael and Michael Scott's 1996 paper, which is also what
+ * java.util.concurrent.ConcurrentLinkedQueue is based on.
+ *
+ * Like ConcurrentStack, it never locks. Every change is a "compare and set": change this reference, but ONLY if it
+ * still points where we last saw it. Losing a race just means trying again.
+ *
+ * The tricky part is that a Queue has two ends, so an enqueue has two references to change: the last Node's rest, and
+ * tail. Those can't be changed at the same instant, so for a moment tail may lag one Node behind the real end of the
+ * Queue. Any thread that notices that (tail.rest isn't null) helps out by moving tail forward before doing its own
+ * work. That way, no thread ever has to wait for the one that got paused half-way through.
+ *
+ * head always points at a "dummy" Node whose item has already been dequeued. The real front of the line is head.rest.
+ * Having the dummy means head and tail never have to be changed together, even when the Queue goes from empty to one
+ * item.
+ *
+ * Since null is how dequeue says "empty", null can't be enqueued.
+ */
+public class ConcurrentQueue implements Buffers.Buffer {
+
+    private static final class Node {
+        volatile Object item;
+        volatile Node rest;
+
+        Node(Object item) {
+            this.item = item;
+        }
+    }
+
+    /*
+     * Field updaters let us compare-and-set a plain volatile field, rather than keeping an AtomicReference object for
+     * every Node.
+     */
+    private static final AtomicReferenceFieldUpdater<Node, Node> REST =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "rest");
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentQueue.class, Node.class, "head");
+
+    private static final AtomicReferenceFieldUpdater<ConcurrentQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentQueue.class, Node.class, "tail");
+
+    /**
+     * The dummy Node in front of the line.
+     */
+    private volatile Node head;
+
+    /**
+     * The last Node of the Queue, or at worst the one just before it.
+     */
+    private volatile Node tail;
+
+    /**
+     * Creates an empty Queue, which is just the dummy Node.
+     */
+    public ConcurrentQueue() {
+        Node dummy = new Node(null);
+        head = dummy;
+        tail = dummy;
+    }
+
+    /**
+     * Places an item at the back of the Queue.
+     * @param item The item to enqueue. Can't be null.
+     */
+    public void enqueue(Object item) {
+        if(item == null)
+            throw new NullPointerException("Can't enqueue null onto a ConcurrentQueue");
+
+        Node node = new Node(item);
+
+        while(true) {
+            Node last = tail;
+            Node next = last.rest;
+
+            // Someone changed tail while we were reading; start over
+            if(last != tail)
+                continue;
+
+            if(next == null) {
+                // tail really is the last Node. Try to hang ours off of it.
+                if(REST.compareAndSet(last, null, node)) {
+                    // It worked. Try to move tail up; if this fails, some other thread already did it for us.
+                    TAIL.compareAndSet(this, last, node);
+                    return;
+                }
+            }
+            else {
+                // tail is lagging behind. Help move it up, then try again.
+                TAIL.compareAndSet(this, last, next);
+            }
+        }
+    }
+
+    /**
+     * Removes the item at the front of the Queue, and returns it.
+     * @return The item at the front of the Queue, or null if the Queue is empty
+     */
+    public Object dequeue() {
+        while(true) {
+            Node first = head;
+            Node last = tail;
+            Node next = first.rest;
+
+            if(first != head)
+                continue;
+
+            if(first == last) {
+                // Nothing after the dummy: the Queue is empty
+                if(next == null)
+                    return null;
+
+                // Something was enqueued, but tail hasn't caught up yet. Help it along.
+                TAIL.compareAndSet(this, last, next);
+            }
+            else {
+                Object item = next.item;
+
+                // Moving head forward makes next the new dummy, which is what dequeues the item
+                if(HEAD.compareAndSet(this, first, next)) {
+                    // The dummy shouldn't keep the item from being garbage collected
+                    next.item = null;
+                    return item;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The item at the front of the Queue without taking it out, or null if the Queue is empty
+     */
+    @Override
+    public Object peek() {
+        while(true) {
+            Node first = head;
+            Node next = first.rest;
+
+            if(next == null)
+                return null;
+
+            Object item = next.item;
+
+            // If head didn't move while we looked, the item we saw really was at the front
+            if(first == head)
+                return item;
+        }
+    }
+
+    /**
+     * The same as enqueue. The Queue never fills up.
+     * @return true
+     */
+    @Override
+    public boolean add(Object item) {
+        enqueue(item);
+        return true;
+    }
+
+    /**
+     * The same as dequeue.
+     */
+    @Override
+    public Object take() {
+        return dequeue();
+    }
+
+    /**
+     * Counts the items by walking from the front to the back, so it's O(n). Other threads can enqueue and dequeue while
+     * it counts, so the answer is only ever about right.
+     * @return About how many items are in the Queue
+     */
+    @Override
+    public int size() {
+        int count = 0;
+
+        for(Node node = head.rest; node != null && count < Integer.MAX_VALUE; node = node.rest)
+            count++;
+
+        return count;
+    }
+
+    /**
+     * @return true if the Queue was empty at the moment it was checked. Another thread may have changed that since.
+     */
+    @Override
+    public boolean isEmpty() {
+        return head.rest == null;
+    }
+}
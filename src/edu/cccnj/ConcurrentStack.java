@@ -0,0 +1,125 @@
+package edu.cccnj;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A Stack that any number of threads can push to and pop from at the same time, without locks. This is the classic
+ * "Treiber stack", from R. Kent Treiber's 1986 paper.
+ *
+ * The normal way to make something thread-safe is to put it in a synchronized block, so only one thread can be inside
+ * at a time. That works, but every other thread has to wait in line, and a thread that gets paused by the operating
+ * system while holding the lock makes everyone wait for it.
+ *
+ * The Treiber stack is a linked list where the only thing that ever changes is which Node is on top. To push, a thread
+ * makes a new Node pointing at the current top, then asks the CPU to "compare and set" the top: swap in the new Node,
+ * but ONLY if the top is still what we saw a moment ago. If another thread got there first, nothing changes, and we
+ * just try again with the new top. Nobody ever waits on anybody else; the worst case is having to try again.
+ *
+ * Since null is how pop says "empty", null can't be pushed.
+ */
+public class ConcurrentStack implements Buffers.Buffer {
+
+    /**
+     * One item in the stack, and the rest of the stack under it. Nodes never change after they're made, which is a big
+     * part of why this is safe.
+     */
+    private static final class Node {
+        final Object item;
+        final Node rest;
+
+        Node(Object item, Node rest) {
+            this.item = item;
+            this.rest = rest;
+        }
+    }
+
+    /**
+     * The Node on top of the stack, or null if the stack is empty.
+     */
+    private final AtomicReference<Node> top = new AtomicReference<Node>();
+
+    /**
+     * Puts the item on top of the stack.
+     * @param obj The item to push. Can't be null.
+     */
+    public void push(Object obj) {
+        if(obj == null)
+            throw new NullPointerException("Can't push null onto a ConcurrentStack");
+
+        Node oldTop;
+        Node newTop;
+
+        do {
+            oldTop = top.get();
+            newTop = new Node(obj, oldTop);
+        } while(!top.compareAndSet(oldTop, newTop));
+    }
+
+    /**
+     * Takes the item off the top of the stack, and returns it.
+     * @return The most recently pushed item, or null if the stack is empty
+     */
+    public Object pop() {
+        Node oldTop;
+
+        do {
+            oldTop = top.get();
+
+            if(oldTop == null)
+                return null;
+
+        } while(!top.compareAndSet(oldTop, oldTop.rest));
+
+        return oldTop.item;
+    }
+
+    /**
+     * @return The item on top of the stack without taking it off, or null if the stack is empty
+     */
+    @Override
+    public Object peek() {
+        Node current = top.get();
+        return current == null ? null : current.item;
+    }
+
+    /**
+     * The same as push. The stack never fills up.
+     * @return true
+     */
+    @Override
+    public boolean add(Object item) {
+        push(item);
+        return true;
+    }
+
+    /**
+     * The same as pop.
+     */
+    @Override
+    public Object take() {
+        return pop();
+    }
+
+    /**
+     * Counts the items by walking from the top to the bottom, so it's O(n). Other threads can push and pop while it
+     * counts, so the answer is only ever about right.
+     * @return About how many items are on the stack
+     */
+    @Override
+    public int size() {
+        int count = 0;
+
+        for(Node node = top.get(); node != null && count < Integer.MAX_VALUE; node = node.rest)
+            count++;
+
+        return count;
+    }
+
+    /**
+     * @return true if the stack was empty at the moment it was checked. Another thread may have changed that since.
+     */
+    @Override
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+}
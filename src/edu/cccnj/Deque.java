@@ -0,0 +1,211 @@
+package edu.cccnj;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A "double-ended queue" (pronounced "deck"): items can go in and come out at either end, so it can be used as a
+ * Queue, a Stack, or both at once. Schedulers like them for putting urgent work at the front and everything else at
+ * the back.
+ *
+ * It's a ring buffer, exactly like Buffers.Queue, except head can move backwards too. Adding to the front moves head
+ * back one slot (wrapping around from 0 to the end of the array), and adding to the back fills the slot size places
+ * after head. All four ends of the operation are O(1), and the array doubles when it fills up.
+ *
+ * As a Buffer, add puts items at the back and take takes them from the front, so it acts like a Queue.
+ *
+ * Like the regular Queue, this isn't thread-safe.
+ */
+public class Deque implements Buffers.Buffer, Iterable<Object> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The items. The length is always a power of two, so "wrap around" is & (length - 1).
+     */
+    private Object[] contents;
+
+    /**
+     * The index of the front item.
+     */
+    private int head;
+
+    private int size;
+
+    /**
+     * Counts every change, so iterators can tell if the Deque changed under them.
+     */
+    private int modCount;
+
+    /**
+     * Creates an empty Deque.
+     */
+    public Deque() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty Deque with room for initialCapacity items before it has to grow.
+     * @param initialCapacity How many items to make room for
+     */
+    public Deque(int initialCapacity) {
+        contents = new Object[Buffers.powerOfTwoAtLeast(Math.max(initialCapacity, 1))];
+    }
+
+    /**
+     * Puts an item in front of all of the others.
+     * @param item The item to add
+     */
+    public void addFirst(Object item) {
+        if(size == contents.length)
+            grow();
+
+        head = (head - 1) & (contents.length - 1);
+        contents[head] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Puts an item behind all of the others.
+     * @param item The item to add
+     */
+    public void addLast(Object item) {
+        if(size == contents.length)
+            grow();
+
+        contents[(head + size) & (contents.length - 1)] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes the item at the front.
+     * @return The item, or null if the Deque is empty
+     */
+    public Object takeFirst() {
+        if(size == 0)
+            return null;
+
+        Object item = contents[head];
+        contents[head] = null;
+        head = (head + 1) & (contents.length - 1);
+        size--;
+        modCount++;
+        return item;
+    }
+
+    /**
+     * Removes the item at the back.
+     * @return The item, or null if the Deque is empty
+     */
+    public Object takeLast() {
+        if(size == 0)
+            return null;
+
+        int last = (head + size - 1) & (contents.length - 1);
+        Object item = contents[last];
+        contents[last] = null;
+        size--;
+        modCount++;
+        return item;
+    }
+
+    /**
+     * @return The item at the front without removing it, or null if the Deque is empty
+     */
+    public Object peekFirst() {
+        return size == 0 ? null : contents[head];
+    }
+
+    /**
+     * @return The item at the back without removing it, or null if the Deque is empty
+     */
+    public Object peekLast() {
+        return size == 0 ? null : contents[(head + size - 1) & (contents.length - 1)];
+    }
+
+    /**
+     * The same as addLast.
+     * @return true. A Deque never fills up.
+     */
+    @Override
+    public boolean add(Object item) {
+        addLast(item);
+        return true;
+    }
+
+    /**
+     * The same as takeFirst.
+     */
+    @Override
+    public Object take() {
+        return takeFirst();
+    }
+
+    /**
+     * The same as peekFirst.
+     */
+    @Override
+    public Object peek() {
+        return peekFirst();
+    }
+
+    /**
+     * @return How many items are in the Deque
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the Deque without changing it, front to back. The Iterator is fail-fast, like Buffers.Queue's.
+     * @return The Iterator
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * @return A Spliterator over the Deque, front to back. See Buffers.IndexSpliterator.
+     */
+    @Override
+    public Spliterator<Object> spliterator() {
+        Object[] array = contents;
+        int start = head;
+        return new Buffers.IndexSpliterator(i -> array[(start + i) & (array.length - 1)], 0, size, () -> modCount);
+    }
+
+    /**
+     * @return A sequential java.util.stream.Stream of the items, front to back
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return A parallel java.util.stream.Stream of the items, front to back
+     */
+    public Stream<Object> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Copies the items into an array twice as big, unwrapping them so the front is at index 0 again.
+     */
+    private void grow() {
+        Object[] bigger = new Object[contents.length * 2];
+        int firstPart = contents.length - head;
+
+        System.arraycopy(contents, head, bigger, 0, firstPart);
+        System.arraycopy(contents, 0, bigger, firstPart, head);
+
+        contents = bigger;
+        head = 0;
+    }
+}
@@ -0,0 +1,595 @@
+package edu.cccnj;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A Queue of byte[] records that lives in files, so it's still there after the program stops, or crashes.
+ *
+ * The records go into "segment" files in a directory. Each segment is a fixed size, and it's memory-mapped: the
+ * operating system makes the file look like a big ByteBuffer, and writing to the buffer writes to the file. That's
+ * nearly as fast as writing to memory, because it IS writing to memory; the operating system copies the changes to
+ * disk in the background. When a segment fills up, a new one is started, and when every record in a segment has been
+ * dequeued, its file is deleted.
+ *
+ * Inside a segment, each record is
+ *
+ * [length (4 bytes)] [checksum (4 bytes)] [the record's bytes]
+ *
+ * and a length of 0 means "nothing has been written here yet". A length of ROLLOVER means "the rest of this segment is
+ * empty, go on to the next one". The length is always written last, so a record only ever shows up once it's all
+ * there. The checksum is for crashes: the operating system doesn't promise to write the pages of a file to disk in
+ * order, so after a crash, a record's length could have made it to disk while some of its bytes didn't. The checksum
+ * catches that.
+ *
+ * Where the reader is (which segment, and where in it) is kept in a small "cursor" file, also memory-mapped. When the
+ * Queue is opened, it starts at the cursor and scans forward through the records, checking each one, to find out how
+ * many records are left and where the end is. The first record that doesn't check out is where the end is.
+ *
+ * "Copied to disk in the background" also means a crash of the whole machine can lose the last few changes. How many
+ * is up to the Sync policy, which says how often to force the changes to disk: after every N records, after every T
+ * milliseconds, or never (leaving it to the operating system). A record that was dequeued, but whose cursor change
+ * wasn't forced yet, comes back after a crash. So a record is never lost once it's synced, but could be seen twice.
+ *
+ * Like the regular Queue, this isn't thread-safe, and only one DurableQueue should have a directory open at a time.
+ */
+public class DurableQueue implements Buffers.Buffer, Closeable {
+
+    /**
+     * How often changes are forced to disk.
+     */
+    public static final class Sync {
+
+        private final int everyRecords;
+        private final long everyMillis;
+
+        private Sync(int everyRecords, long everyMillis) {
+            this.everyRecords = everyRecords;
+            this.everyMillis = everyMillis;
+        }
+
+        /**
+         * @return A policy that never forces anything; the operating system writes the changes whenever it likes. The
+         * fastest, and a crash of the program (but not the machine) still loses nothing.
+         */
+        public static Sync none() {
+            return new Sync(0, 0);
+        }
+
+        /**
+         * @param records How many enqueues and dequeues to allow between forces
+         * @return A policy that forces the changes every that many records
+         */
+        public static Sync everyRecords(int records) {
+            if(records < 1)
+                throw new IllegalArgumentException("Must sync at least every " + records + " records");
+
+            return new Sync(records, 0);
+        }
+
+        /**
+         * The time is checked on each enqueue and dequeue; there's no background thread. So a Queue that isn't being
+         * used isn't forced, even after the time has passed. Call sync() for that.
+         * @param millis How many milliseconds to allow between forces
+         * @return A policy that forces the changes every that many milliseconds
+         */
+        public static Sync everyMillis(long millis) {
+            if(millis < 1)
+                throw new IllegalArgumentException("Must sync at least every " + millis + " milliseconds");
+
+            return new Sync(0, millis);
+        }
+    }
+
+    /**
+     * How big each segment file is, if you don't ask for a size.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * The length that says "go on to the next segment".
+     */
+    private static final int ROLLOVER = -1;
+
+    /**
+     * The length and checksum in front of every record.
+     */
+    private static final int RECORD_HEADER = 8;
+
+    /**
+     * Checked against the cursor file, to tell a real cursor from garbage.
+     */
+    private static final int CURSOR_MAGIC = 0x5EC0DE;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    /**
+     * Copied over the leftovers at the end of the Queue when it's opened, to wipe them. See tornEnd.
+     */
+    private static final byte[] ZEROS = new byte[4096];
+
+    /**
+     * One segment file, mapped into memory.
+     */
+    private static final class Segment {
+        final long number;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        Segment(long number, Path path, int size) throws IOException {
+            this.number = number;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Sync sync;
+    private final CRC32C checksum = new CRC32C();
+
+    private final FileChannel cursorChannel;
+    private final MappedByteBuffer cursor;
+
+    /**
+     * The segment the next dequeue reads from, and where in it.
+     */
+    private Segment reading;
+    private int readPosition;
+
+    /**
+     * The segment the next enqueue writes to, and where in it. Often the same segment as reading.
+     */
+    private Segment writing;
+    private int writePosition;
+
+    /**
+     * How many records are waiting to be dequeued.
+     */
+    private long size;
+
+    /**
+     * How many enqueues and dequeues since the last force, and when it was.
+     */
+    private int unsyncedRecords;
+    private long lastSyncNanos = System.nanoTime();
+
+    /**
+     * Opens the Queue in the directory, with DEFAULT_SEGMENT_SIZE segments, forcing changes to disk every 1000
+     * records. The directory is created if it doesn't exist.
+     * @param directory Where the Queue's files are kept
+     * @throws IOException If the files can't be read or written
+     */
+    public DurableQueue(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, Sync.everyRecords(1000));
+    }
+
+    /**
+     * Opens the Queue in the directory, picking up wherever it was left. The directory is created if it doesn't exist.
+     * @param directory Where the Queue's files are kept
+     * @param segmentSize How big each segment file is. A record can't be bigger than this, less 12 bytes.
+     * @param sync How often to force changes to disk
+     * @throws IOException If the files can't be read or written
+     */
+    public DurableQueue(Path directory, int segmentSize, Sync sync) throws IOException {
+        if(segmentSize < RECORD_HEADER + 8)
+            throw new IllegalArgumentException("Segments of " + segmentSize + " bytes are too small");
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+
+        Files.createDirectories(directory);
+
+        cursorChannel = FileChannel.open(directory.resolve("cursor"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        cursor = cursorChannel.map(FileChannel.MapMode.READ_WRITE, 0, 16);
+
+        recover();
+    }
+
+    /**
+     * Works out where everything is: reads the cursor, throws away segments that were already read, then scans forward
+     * from the cursor, record by record, to count what's left and find the end.
+     */
+    private void recover() throws IOException {
+        List<Long> numbers = segmentNumbers();
+
+        long segment = cursor.getLong(0);
+        int position = cursor.getInt(8);
+
+        // No cursor yet, a damaged one, or one pointing at a segment that's gone: start at the oldest segment
+        boolean valid = cursor.getInt(12) == cursorCheck(segment, position)
+                && numbers.contains(segment) && position >= 0 && position < segmentSize;
+
+        if(!valid) {
+            segment = numbers.isEmpty() ? 0 : numbers.get(0);
+            position = 0;
+        }
+
+        // Anything before the cursor was already dequeued
+        for(long number : numbers)
+            if(number < segment)
+                Files.deleteIfExists(segmentPath(number));
+
+        reading = openSegment(segment);
+        readPosition = position;
+        writeCursor();
+
+        Segment scanning = reading;
+        int scan = position;
+        long count = 0;
+
+        while(true) {
+            int length = scanning.buffer.getInt(scan);
+
+            if(length == ROLLOVER) {
+                Segment next = openSegment(scanning.number + 1);
+
+                if(scanning != reading)
+                    scanning.close();
+
+                scanning = next;
+                scan = 0;
+            }
+            else if(isValidRecord(scanning.buffer, scan, length)) {
+                count++;
+                scan += RECORD_HEADER + length;
+            }
+            else {
+                break;
+            }
+        }
+
+        // Wipe whatever's after the end, so a half-written record from before can never be mistaken for a real one
+        wipe(scanning.buffer, scan, tornEnd(scanning.buffer, scan));
+
+        writing = scanning;
+        writePosition = scan;
+        size = count;
+
+        // And any segment after the end is left over from before the crash
+        for(long number : segmentNumbers())
+            if(number > writing.number)
+                Files.deleteIfExists(segmentPath(number));
+
+        sync();
+    }
+
+    /**
+     * Places a record at the back of the Queue.
+     * @param record The record. It can't be empty.
+     */
+    public void enqueue(byte[] record) {
+        enqueue(ByteBuffer.wrap(record));
+    }
+
+    /**
+     * Places a record at the back of the Queue. The record is the bytes from record's position to its limit, and
+     * record's position isn't changed.
+     * @param record The record. It can't be empty.
+     */
+    public void enqueue(ByteBuffer record) {
+        int length = record.remaining();
+
+        if(length == 0)
+            throw new IllegalArgumentException("A record can't be empty");
+
+        // There always has to be room left for a ROLLOVER marker
+        if(length > segmentSize - RECORD_HEADER - 4)
+            throw new IllegalArgumentException("A record of " + length + " bytes won't fit in a segment of " + segmentSize);
+
+        if(writePosition + RECORD_HEADER + length > segmentSize - 4)
+            rollover();
+
+        ByteBuffer target = writing.buffer;
+
+        target.put(writePosition + RECORD_HEADER, record, record.position(), length);
+        target.putInt(writePosition + 4, checksum(target, writePosition + RECORD_HEADER, length));
+
+        // Last of all, the length, which is what makes the record show up
+        target.putInt(writePosition, length);
+
+        writePosition += RECORD_HEADER + length;
+        size++;
+        recordDone();
+    }
+
+    /**
+     * Removes the record at the front of the Queue.
+     * @return The record, or null if the Queue is empty
+     */
+    public byte[] dequeue() {
+        if(!moveToNextRecord())
+            return null;
+
+        int length = reading.buffer.getInt(readPosition);
+        byte[] record = new byte[length];
+        reading.buffer.get(readPosition + RECORD_HEADER, record);
+
+        finishRead(length);
+        return record;
+    }
+
+    /**
+     * Removes the record at the front of the Queue, copying it into the given buffer, so that nothing has to be made.
+     * If the record won't fit, nothing is removed.
+     * @param into Where to put the record, starting at its position. Its position is moved past the record.
+     * @return The length of the record, or -1 if the Queue is empty
+     * @throws java.nio.BufferOverflowException If the record won't fit in into
+     */
+    public int dequeue(ByteBuffer into) {
+        if(!moveToNextRecord())
+            return -1;
+
+        int length = reading.buffer.getInt(readPosition);
+        into.put(reading.buffer.slice(readPosition + RECORD_HEADER, length));
+
+        finishRead(length);
+        return length;
+    }
+
+    /**
+     * @return The record at the front of the Queue without removing it, or null if the Queue is empty
+     */
+    @Override
+    public byte[] peek() {
+        if(!moveToNextRecord())
+            return null;
+
+        byte[] record = new byte[reading.buffer.getInt(readPosition)];
+        reading.buffer.get(readPosition + RECORD_HEADER, record);
+        return record;
+    }
+
+    /**
+     * The same as enqueue.
+     * @param item A byte[] or ByteBuffer holding the record
+     * @return true. The Queue never fills up, short of the disk filling up.
+     */
+    @Override
+    public boolean add(Object item) {
+        if(item instanceof byte[])
+            enqueue((byte[]) item);
+
+        else if(item instanceof ByteBuffer)
+            enqueue((ByteBuffer) item);
+
+        else
+            throw new IllegalArgumentException("A DurableQueue only holds byte[] records, not " + item);
+
+        return true;
+    }
+
+    /**
+     * The same as dequeue().
+     */
+    @Override
+    public byte[] take() {
+        return dequeue();
+    }
+
+    /**
+     * @return How many records are waiting to be dequeued, or Integer.MAX_VALUE if there are more than that. See
+     * longSize.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return How many records are waiting to be dequeued
+     */
+    public long longSize() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no records waiting
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Forces every change so far to disk, whatever the Sync policy says.
+     */
+    public void sync() {
+        writing.buffer.force();
+        cursor.force();
+
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Forces every change to disk and closes the files. The Queue can't be used after this.
+     * @throws IOException If a file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+
+        if(reading != writing)
+            reading.close();
+
+        writing.close();
+        cursorChannel.close();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gets the reader to the next record, crossing into the next segment if it has to.
+     * @return false if the Queue is empty
+     */
+    private boolean moveToNextRecord() {
+        if(size == 0)
+            return false;
+
+        if(reading.buffer.getInt(readPosition) == ROLLOVER) {
+            try {
+                // Everything in this segment has been read, so it can go
+                Segment finished = reading;
+                reading = finished.number + 1 == writing.number ? writing : openSegment(finished.number + 1);
+                readPosition = 0;
+
+                finished.close();
+                Files.deleteIfExists(finished.path);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return true;
+    }
+
+    private void finishRead(int length) {
+        readPosition += RECORD_HEADER + length;
+        size--;
+        writeCursor();
+        recordDone();
+    }
+
+    /**
+     * Marks the rest of the current segment as empty, and starts writing to a new one.
+     */
+    private void rollover() {
+        try {
+            writing.buffer.putInt(writePosition, ROLLOVER);
+
+            // Make sure the old segment is all on disk before anything goes into the new one
+            if(sync.everyRecords > 0 || sync.everyMillis > 0)
+                writing.buffer.force();
+
+            Segment next = openSegment(writing.number + 1);
+
+            if(writing != reading)
+                writing.close();
+
+            writing = next;
+            writePosition = 0;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Counts a record towards the Sync policy, and forces the changes to disk if it's time.
+     */
+    private void recordDone() {
+        unsyncedRecords++;
+
+        if(sync.everyRecords > 0 && unsyncedRecords >= sync.everyRecords)
+            sync();
+
+        else if(sync.everyMillis > 0 && System.nanoTime() - lastSyncNanos >= sync.everyMillis * 1_000_000)
+            sync();
+    }
+
+    private void writeCursor() {
+        cursor.putLong(0, reading.number);
+        cursor.putInt(8, readPosition);
+        cursor.putInt(12, cursorCheck(reading.number, readPosition));
+    }
+
+    private static int cursorCheck(long segment, int position) {
+        return (Long.hashCode(segment) * 31 + position) ^ CURSOR_MAGIC;
+    }
+
+    /**
+     * Finds where the leftovers after the end of the Queue stop. A crash can leave records behind the end that made it
+     * to disk only partly (a length, but not all of their bytes), and records after those that made it all the way. So
+     * this steps from header to header, the same way the scan did, until it gets to a length of 0, which nothing was
+     * ever written past. A length that can't be real means the rest of the segment can't be trusted.
+     *
+     * Usually the very first length is 0, and there's nothing to wipe at all. Wiping the whole rest of the segment
+     * every time would write to (and make the file system allocate) every page of it, on every open.
+     * @return The end of the leftovers, which is from if there aren't any
+     */
+    private int tornEnd(ByteBuffer buffer, int from) {
+        int end = from;
+
+        while(end <= segmentSize - 4) {
+            int length = buffer.getInt(end);
+
+            if(length == 0)
+                return end;
+
+            if(length == ROLLOVER)
+                return end + 4;
+
+            if(length < 0 || length > segmentSize - 4 - RECORD_HEADER - end)
+                return segmentSize;
+
+            end += RECORD_HEADER + length;
+        }
+
+        return segmentSize;
+    }
+
+    /**
+     * Zeroes buffer[from, to), a page's worth at a time.
+     */
+    private static void wipe(ByteBuffer buffer, int from, int to) {
+        for(int i = from; i < to; i += ZEROS.length)
+            buffer.put(i, ZEROS, 0, Math.min(ZEROS.length, to - i));
+    }
+
+    private boolean isValidRecord(ByteBuffer buffer, int position, int length) {
+        return length > 0
+                && position + RECORD_HEADER + length <= segmentSize - 4
+                && buffer.getInt(position + 4) == checksum(buffer, position + RECORD_HEADER, length);
+    }
+
+    private int checksum(ByteBuffer buffer, int position, int length) {
+        checksum.reset();
+        checksum.update(buffer.slice(position, length));
+        return (int) checksum.getValue();
+    }
+
+    private Segment openSegment(long number) throws IOException {
+        return new Segment(number, segmentPath(number), segmentSize);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @return The numbers of every segment file in the directory, smallest first
+     */
+    private List<Long> segmentNumbers() throws IOException {
+        List<Long> numbers = new ArrayList<Long>();
+
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for(Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
@@ -0,0 +1,526 @@
+package edu.cccnj;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A LinkedList that's fast to index into. get, set, insert and remove at any index are O(log n), instead of walking
+ * from the head, while append is still O(1) and walking the whole list is still a straight walk from Node to Node.
+ *
+ * It's an "indexable skip list". The bottom level is a normal LinkedList: every Node, in order. On top of that, some
+ * of the Nodes also have a reference that skips further ahead, to the next Node that's at least as tall as them.
+ * Every Node is 1 level tall, half of them are 2 levels tall, a quarter are 3, and so on, chosen at random as each
+ * Node is made. So level 1 skips about 2 Nodes at a time, level 2 about 4, level 3 about 8:
+ *
+ * level 2: head ---------------------------> [d] -------------> null
+ * level 1: head ------------> [b] ---------> [d] ------> [f] --> null
+ * level 0: head --> [a] ----> [b] --> [c] -> [d] -> [e] -> [f] -> null
+ *
+ * Each skip also remembers how many Nodes it skips over (its "width"). To find index i, start at the top level of
+ * the head, and take every skip that doesn't go past i, dropping down a level whenever the next skip would. It's a
+ * binary search over the list, and like one, it takes O(log n) steps on average.
+ *
+ * Inserting or removing a Node only changes the skips that land on it or jump over it, which is one per level, so
+ * that's O(log n) too. Appending would have to find the end, but the list remembers the last Node at every level
+ * (its "fingers"), so appending only has to touch the levels the new Node is tall enough for: 2, on average. A
+ * middle insert or remove can move the fingers, so it just forgets them, and the next append finds them again in
+ * O(log n) before going back to O(1).
+ *
+ * In exchange, every Node carries its skips and widths, which is about twice the memory of a plain LinkedList. If you
+ * only ever append and walk, LinkedList is the better choice; if you mostly read by index, this is. To turn a
+ * LinkedList you already have into one of these, use LinkedList.indexed().
+ *
+ * Like LinkedList, this isn't thread-safe, and its Iterators are fail-fast.
+ * @param <T> The type of item in the list
+ */
+public class IndexedLinkedList<T> implements Iterable<T> {
+
+    /**
+     * The most levels a Node can have. With half of the Nodes making it to each next level, 32 is plenty for any list
+     * that fits in an int.
+     */
+    private static final int MAX_LEVEL = 32;
+
+    /**
+     * One item in the list, along with its skips.
+     *
+     * The positions below count the head as 0 and the first item as 1, so a Node's position is its index + 1.
+     */
+    private static final class Node {
+
+        Object item;
+
+        /**
+         * The next Node at each level this Node is tall enough for. next[0] is the very next Node. null at the end.
+         */
+        final Node[] next;
+
+        /**
+         * How many positions next[level] is ahead of this Node. When next[level] is null, this isn't kept up to date
+         * and means nothing.
+         */
+        final int[] width;
+
+        Node(Object item, int levels) {
+            this.item = item;
+            next = new Node[levels];
+            width = new int[levels];
+        }
+    }
+
+    /**
+     * Holds no item, and is as tall as a Node can get, so every level starts here.
+     */
+    private final Node head = new Node(null, MAX_LEVEL);
+
+    /**
+     * How many levels are used right now. Searches start at levels - 1 instead of MAX_LEVEL - 1.
+     */
+    private int levels = 1;
+
+    private int size;
+
+    /**
+     * Counts every change, so iterators can tell if the list changed under them.
+     */
+    private int modCount;
+
+    /**
+     * The last Node at each level, and its position. Only right while fingersValid is true.
+     */
+    private final Node[] last = new Node[MAX_LEVEL];
+
+    private final int[] lastPosition = new int[MAX_LEVEL];
+
+    private boolean fingersValid = true;
+
+    /**
+     * Scratch space for insert and remove: the Node at each level that comes right before where they're working, and
+     * its position. Kept around so that neither of them has to make an array every time.
+     */
+    private final Node[] before = new Node[MAX_LEVEL];
+
+    private final int[] beforePosition = new int[MAX_LEVEL];
+
+    /**
+     * Where Node heights come from. A tiny xorshift generator, since it's called for every Node, and doesn't need to be
+     * any good at being random, only at being cheap and evenly spread.
+     */
+    private int seed = (int) System.nanoTime() | 1;
+
+    /**
+     * Creates an empty list.
+     */
+    public IndexedLinkedList() {
+        for(int level = 0; level < MAX_LEVEL; level++)
+            last[level] = head;
+    }
+
+    /**
+     * Puts the item at the end of the list. O(1) on average.
+     * @param item The item you want at the end of the list.
+     */
+    public void append(T item) {
+        if(!fingersValid)
+            findFingers();
+
+        int height = randomLevel();
+        int position = size + 1;
+        Node node = new Node(item, height);
+
+        if(height > levels)
+            levels = height;
+
+        for(int level = 0; level < height; level++) {
+            last[level].next[level] = node;
+            last[level].width[level] = position - lastPosition[level];
+            last[level] = node;
+            lastPosition[level] = position;
+        }
+
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Gets an item from the list. Indexing will begin at 0. For an index that is out of range, null will be returned,
+     * just like LinkedList.get. O(log n).
+     * @param index The index of the item in the list
+     * @return The item found at the index
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if(index < 0 || index >= size)
+            return null;
+
+        return (T) nodeAt(index + 1).item;
+    }
+
+    /**
+     * Replaces the item at an index. O(log n).
+     * @param index The index to replace. Has to be in the list.
+     * @param item The new item
+     * @return The item that was there before
+     */
+    @SuppressWarnings("unchecked")
+    public T set(int index, T item) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of a list of length " + size);
+
+        Node node = nodeAt(index + 1);
+        T old = (T) node.item;
+        node.item = item;
+        return old;
+    }
+
+    /**
+     * Puts an item at an index, moving the item that was there, and everything after it, one index later. O(log n).
+     * @param index Where the item should end up. 0 puts it first, and length() is the same as append.
+     * @param item The item to insert
+     */
+    public void insert(int index, T item) {
+        if(index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Can't insert at " + index + " in a list of length " + size);
+
+        if(index == size) {
+            append(item);
+            return;
+        }
+
+        int position = index + 1;
+        findBefore(position);
+
+        int height = randomLevel();
+        Node node = new Node(item, height);
+
+        if(height > levels) {
+            for(int level = levels; level < height; level++) {
+                before[level] = head;
+                beforePosition[level] = 0;
+            }
+
+            levels = height;
+        }
+
+        for(int level = 0; level < levels; level++) {
+            Node previous = before[level];
+
+            if(level < height) {
+                // The old skip from previous is split in two: previous -> node -> wherever it went before
+                node.next[level] = previous.next[level];
+
+                if(node.next[level] != null)
+                    node.width[level] = beforePosition[level] + previous.width[level] + 1 - position;
+
+                previous.next[level] = node;
+                previous.width[level] = position - beforePosition[level];
+            }
+            else if(previous.next[level] != null) {
+                // Too short to be on this level, so the skip over it just gets one longer
+                previous.width[level]++;
+            }
+        }
+
+        size++;
+        modCount++;
+        fingersValid = false;
+    }
+
+    /**
+     * Takes the item at an index out of the list, moving everything after it one index earlier. O(log n).
+     * @param index The index to remove
+     * @return The item that was removed, or null if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        if(index < 0 || index >= size)
+            return null;
+
+        findBefore(index + 1);
+        Node node = before[0].next[0];
+
+        for(int level = 0; level < levels; level++) {
+            Node previous = before[level];
+
+            if(previous.next[level] == node) {
+                // Skip straight to wherever node was skipping to
+                previous.next[level] = node.next[level];
+
+                if(node.next[level] != null)
+                    previous.width[level] += node.width[level] - 1;
+            }
+            else if(previous.next[level] != null) {
+                previous.width[level]--;
+            }
+        }
+
+        while(levels > 1 && head.next[levels - 1] == null)
+            levels--;
+
+        size--;
+        modCount++;
+        fingersValid = false;
+
+        T item = (T) node.item;
+        node.item = null;
+        return item;
+    }
+
+    /**
+     * @return The length of the list.
+     */
+    public int length() {
+        return size;
+    }
+
+    /**
+     * Generates a list from any number of items.
+     * @param <T> The type parameter
+     * @return The list with these items added onto it.
+     */
+    @SafeVarargs
+    public static <T> IndexedLinkedList<T> generate(T... items) {
+        IndexedLinkedList<T> localList = new IndexedLinkedList<T>();
+
+        for(T item : items)
+            localList.append(item);
+
+        return localList;
+    }
+
+    /**
+     * Makes an indexed copy of any Iterable, like a LinkedList. O(n).
+     * @param items The items to copy, in order
+     * @param <T> The type parameter
+     * @return The new list
+     */
+    public static <T> IndexedLinkedList<T> from(Iterable<? extends T> items) {
+        IndexedLinkedList<T> localList = new IndexedLinkedList<T>();
+
+        for(T item : items)
+            localList.append(item);
+
+        return localList;
+    }
+
+    /**
+     * Prints out the list the same way LinkedList does, [1, [2, [3]]].
+     * @return The string representing this list
+     */
+    public String toString() {
+        if(size == 0)
+            return "[]";
+
+        StringBuilder builder = new StringBuilder();
+
+        for(Node node = head.next[0]; node != null; node = node.next[0]) {
+            builder.append('[').append(node.item);
+
+            if(node.next[0] != null)
+                builder.append(", ");
+        }
+
+        for(int i = 0; i < size; i++)
+            builder.append(']');
+
+        return builder.toString();
+    }
+
+    /**
+     * @return A copy of the list. The copy picks its own Node heights, so it's only the same from the outside.
+     */
+    public IndexedLinkedList<T> clone() {
+        return from(this);
+    }
+
+    /**
+     * Iterates over the list front to back, along the bottom level, so it's O(1) per item. The Iterator is fail-fast,
+     * like LinkedList's.
+     * @return The Iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Node next = head.next[0];
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if(modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+
+                if(next == null)
+                    throw new NoSuchElementException();
+
+                T item = (T) next.item;
+                next = next.next[0];
+                return item;
+            }
+        };
+    }
+
+    /**
+     * @return A Spliterator over the items that knows exactly how many there are
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED);
+    }
+
+    /**
+     * @return A sequential java.util.stream.Stream of the items
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list. See LinkedList.lazy().
+     * @return A Pipeline whose source is this list
+     */
+    @SuppressWarnings("unchecked")
+    public Pipeline<T> lazy() {
+        return Pipeline.of(sink -> {
+            for(Node node = head.next[0]; node != null; node = node.next[0])
+                if(!sink.accept((T) node.item))
+                    return false;
+
+            return true;
+        });
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list that runs in parallel, on the common ForkJoinPool. See LinkedList.parallel().
+     * @return A parallel Pipeline whose source is this list
+     */
+    public Pipeline<T> parallel() {
+        return this.lazy().parallel();
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list that runs in parallel, on the given pool.
+     * @param pool The pool to run on
+     * @return A parallel Pipeline whose source is this list
+     */
+    public Pipeline<T> parallel(ForkJoinPool pool) {
+        return this.lazy().parallel(pool);
+    }
+
+    /**
+     * Creates a new list by applying the function to the items of this one.
+     * @param function The function that we'll be using on the list
+     * @param <R> The return type of the function
+     * @return The new list
+     */
+    public <R> IndexedLinkedList<R> map(Function<T, R> function) {
+        IndexedLinkedList<R> newList = new IndexedLinkedList<R>();
+
+        this.lazy().map(function).forEach(newList::append);
+
+        return newList;
+    }
+
+    /**
+     * Returns only the items of the list for which the predicate is true.
+     * @param predicate The predicate to filter with
+     * @return The filtered list
+     */
+    public IndexedLinkedList<T> filter(Predicate<T> predicate) {
+        IndexedLinkedList<T> newList = new IndexedLinkedList<T>();
+
+        this.lazy().filter(predicate).forEach(newList::append);
+
+        return newList;
+    }
+
+    /**
+     * Reduces the list exactly like LinkedList.reduce: the bifunction is given (item, valueSoFar), and the first
+     * valueSoFar is initialValue.
+     * @param bifunction The bifunction that we'll be using
+     * @param initialValue The initial value
+     * @return The result after reducing the list
+     */
+    public T reduce(BiFunction<T, T, T> bifunction, T initialValue) {
+        return this.lazy().reduce(bifunction, initialValue);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Finds the Node at a position (index + 1), which has to be in the list. From the top level down, take every skip
+     * that doesn't go past it.
+     */
+    private Node nodeAt(int position) {
+        Node node = head;
+        int at = 0;
+
+        for(int level = levels - 1; level >= 0; level--) {
+            while(node.next[level] != null && at + node.width[level] <= position) {
+                at += node.width[level];
+                node = node.next[level];
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Fills in before and beforePosition with the last Node at each level that comes before position. This is the
+     * same walk as nodeAt, stopping one short, and remembering where it dropped down each level.
+     */
+    private void findBefore(int position) {
+        Node node = head;
+        int at = 0;
+
+        for(int level = levels - 1; level >= 0; level--) {
+            while(node.next[level] != null && at + node.width[level] < position) {
+                at += node.width[level];
+                node = node.next[level];
+            }
+
+            before[level] = node;
+            beforePosition[level] = at;
+        }
+    }
+
+    /**
+     * Finds the last Node at every level again, after an insert or remove may have moved them.
+     */
+    private void findFingers() {
+        findBefore(size + 1);
+
+        for(int level = 0; level < MAX_LEVEL; level++) {
+            last[level] = level < levels ? before[level] : head;
+            lastPosition[level] = level < levels ? beforePosition[level] : 0;
+        }
+
+        fingersValid = true;
+    }
+
+    /**
+     * @return How tall a new Node should be: 1, with a 1 in 2 chance of 2, a 1 in 4 chance of 3, and so on
+     */
+    private int randomLevel() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+
+        // Each trailing zero bit is a coin flip that came up "taller"
+        return Math.min(Integer.numberOfTrailingZeros(seed) + 1, MAX_LEVEL);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.cccnj;
+
+import java.util.function.Consumer;
+
+/**
+ * A Buffers.Queue that keeps BufferMetrics as it goes. Make one with Buffers.makeInstrumented.
+ *
+ * To know how long each item waited, the Queue has to remember when each one came in. Since a Queue is first in,
+ * first out, the times can go in a ring of their own, right alongside the items: the time at the front of this ring
+ * always belongs to the item at the front of the Queue. That's one long per item, and no objects.
+ *
+ * Like Buffers.Queue, it isn't thread-safe, but the metrics can be read from any thread.
+ */
+public class InstrumentedQueue extends Buffers.Queue {
+
+    private final BufferMetrics metrics;
+
+    /**
+     * When each item was enqueued, from System.nanoTime, in a ring that's always a power of two long.
+     */
+    private long[] enqueuedAt = new long[16];
+    private int stampHead;
+    private int stamps;
+
+    /**
+     * Creates an empty, growable Queue.
+     * @param metrics Where to keep the numbers
+     */
+    public InstrumentedQueue(BufferMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates an empty Queue. See Buffers.Queue(int, boolean).
+     * @param metrics Where to keep the numbers
+     * @param capacity How many items to make room for
+     * @param bounded Whether capacity is a hard limit
+     */
+    public InstrumentedQueue(BufferMetrics metrics, int capacity, boolean bounded) {
+        super(capacity, bounded);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Where the numbers are kept
+     */
+    public BufferMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public boolean enqueue(Object item) {
+        if(!super.enqueue(item))
+            return false;
+
+        if(stamps == enqueuedAt.length)
+            growStamps();
+
+        enqueuedAt[(stampHead + stamps) & (enqueuedAt.length - 1)] = System.nanoTime();
+        stamps++;
+
+        metrics.inserted(size());
+        return true;
+    }
+
+    @Override
+    public Object dequeue() {
+        if(isEmpty()) {
+            metrics.removedNothing();
+            return null;
+        }
+
+        Object item = super.dequeue();
+
+        long stamp = enqueuedAt[stampHead];
+        stampHead = (stampHead + 1) & (enqueuedAt.length - 1);
+        stamps--;
+
+        metrics.removed(System.nanoTime() - stamp);
+        return item;
+    }
+
+    /**
+     * Goes through enqueue for every item, since that's where each item's time and the depth get recorded.
+     */
+    @Override
+    public int enqueueAll(Object... items) {
+        int count = 0;
+
+        while(count < items.length && enqueue(items[count]))
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Dequeues the items one at a time, so each one's sojourn time is recorded.
+     */
+    @Override
+    public int drainTo(Consumer<Object> consumer, int max) {
+        int count = 0;
+
+        for(; count < max && !isEmpty(); count++)
+            consumer.accept(dequeue());
+
+        return count;
+    }
+
+    /**
+     * Doubles the ring of times, unwrapping it so the front is at index 0 again.
+     */
+    private void growStamps() {
+        long[] bigger = new long[enqueuedAt.length * 2];
+        int firstPart = enqueuedAt.length - stampHead;
+
+        System.arraycopy(enqueuedAt, stampHead, bigger, 0, firstPart);
+        System.arraycopy(enqueuedAt, 0, bigger, firstPart, stampHead);
+
+        enqueuedAt = bigger;
+        stampHead = 0;
+    }
+}
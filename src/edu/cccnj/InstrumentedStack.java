@@ -0,0 +1,94 @@
+package edu.cccnj;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A Buffers.Stack that keeps BufferMetrics as it goes. Make one with Buffers.makeInstrumented.
+ *
+ * To know how long each item waited, the Stack remembers when each one was pushed, on a stack of times right alongside
+ * the items: the time on top always belongs to the item on top. That's one long per item, and no objects.
+ *
+ * Like Buffers.Stack, it isn't thread-safe, but the metrics can be read from any thread.
+ */
+public class InstrumentedStack extends Buffers.Stack {
+
+    private final BufferMetrics metrics;
+
+    /**
+     * When each item was pushed, from System.nanoTime. Only the first size() are used.
+     */
+    private long[] pushedAt = new long[16];
+
+    /**
+     * Creates an empty Stack.
+     * @param metrics Where to keep the numbers
+     */
+    public InstrumentedStack(BufferMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Where the numbers are kept
+     */
+    public BufferMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void push(Object obj) {
+        int depth = size();
+
+        if(depth == pushedAt.length)
+            pushedAt = Arrays.copyOf(pushedAt, depth * 2);
+
+        pushedAt[depth] = System.nanoTime();
+        super.push(obj);
+
+        metrics.inserted(depth + 1);
+    }
+
+    @Override
+    public Object pop() {
+        // A null item can be pushed, so pop giving back null doesn't mean the Stack was empty
+        if(isEmpty()) {
+            metrics.removedNothing();
+            return null;
+        }
+
+        Object item = super.pop();
+        metrics.removed(System.nanoTime() - pushedAt[size()]);
+        return item;
+    }
+
+    /*
+     * The batch methods go one item at a time, so that each item gets its own time. That gives up the
+     * System.arraycopy of the plain Stack, but keeps the numbers right.
+     */
+
+    @Override
+    public void pushAll(Object... items) {
+        for(Object item : items)
+            push(item);
+    }
+
+    @Override
+    public Object[] popN(int n) {
+        Object[] items = new Object[Math.min(Math.max(n, 0), size())];
+
+        for(int i = 0; i < items.length; i++)
+            items[i] = pop();
+
+        return items;
+    }
+
+    @Override
+    public int drainTo(Consumer<Object> consumer, int max) {
+        int count = 0;
+
+        for(; count < max && !isEmpty(); count++)
+            consumer.accept(pop());
+
+        return count;
+    }
+}
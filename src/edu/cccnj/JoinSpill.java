@@ -0,0 +1,365 @@
+package edu.cccnj;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Tells LinkedList.hashJoin how much memory its hash table is allowed to take, and how to write items to disk when the
+ * table would take more than that.
+ *
+ * A hash join puts every item of one list (the "build" side, the list passed to hashJoin) into a hash table by key, and
+ * then looks up each item of the other list (the "probe" side) in it. The table is the expensive part: an entry, a
+ * little list of matches, and a Node for every item, on top of the items themselves. When the build side is big
+ * enough, that's more than there's room for.
+ *
+ * So this does a "grace" hash join instead. Both lists are split into partitions by the hash of each item's key, and
+ * each partition is written to its own file with the Codecs. Two items with the same key always land in the same
+ * partition, so every match for a probe item is in its partition's build file. Then the partitions are joined one at
+ * a time: read one partition's build file into a table, stream its probe file past it, and throw the table away
+ * before moving on. Only one partition's table is ever in memory.
+ *
+ * Keys don't always split evenly, so a partition can still be too big for the budget. That partition is split again,
+ * the same way, with a different hash, and its pieces are joined one at a time instead. That goes on for up to
+ * MAX_LEVELS levels of splitting, which is 128 partitions split 128 ways four times over, more than any list in memory
+ * could need.
+ *
+ * Two things can't be split, though, and a partition made of them is built anyway, over budget or not: items that all
+ * have the same key (every match for a key has to be in the same table), and keys whose hashCodes are all the same. A
+ * partition that didn't get any smaller from being split is taken to be one of those, and isn't split again.
+ *
+ * The two lists are only read, never changed, so if a file can't be written or read, they're just as they were.
+ *
+ * The size of an item in the table is guessed from its Codec's maxSize, plus ENTRY_OVERHEAD for the bookkeeping. It's
+ * a guess: an object in memory is usually bigger than its bytes on disk.
+ * @param <L> The type of item in the probe list, the one hashJoin is called on
+ * @param <R> The type of item in the build list, the one passed to hashJoin
+ */
+public final class JoinSpill<L, R> {
+
+    /**
+     * The guessed cost, in bytes, of one item in the hash table apart from the item itself: its Node, and its share of
+     * the table's entries, arrays and match lists.
+     */
+    public static final int ENTRY_OVERHEAD = 64;
+
+    /**
+     * The most partitions a join will split into. Each one has a file, and a write buffer, open at the same time, while
+     * a side is being split, so this stays well under the usual limit of 1024 open files.
+     */
+    static final int MAX_PARTITIONS = 1 << 7;
+
+    /**
+     * How many times a join will split the same items. The first split is level 0.
+     */
+    static final int MAX_LEVELS = 4;
+
+    /**
+     * The smallest amount of items (in guessed bytes) a partition's write buffer holds before it's written out, so
+     * that the files aren't written a handful of bytes at a time.
+     */
+    private static final long MIN_FLUSH_BYTES = 1 << 12;
+
+    private final long memoryBudget;
+
+    private final Codec<L> leftCodec;
+
+    private final Codec<R> rightCodec;
+
+    private final Path directory;
+
+    /**
+     * Creates a JoinSpill that writes its files to the system's temporary directory.
+     * @param memoryBudget How many bytes the hash table can take
+     * @param leftCodec How to write the items of the list hashJoin is called on
+     * @param rightCodec How to write the items of the list passed to hashJoin
+     */
+    public JoinSpill(long memoryBudget, Codec<L> leftCodec, Codec<R> rightCodec) {
+        this(memoryBudget, leftCodec, rightCodec, null);
+    }
+
+    /**
+     * Creates a JoinSpill.
+     * @param memoryBudget How many bytes the hash table can take
+     * @param leftCodec How to write the items of the list hashJoin is called on
+     * @param rightCodec How to write the items of the list passed to hashJoin
+     * @param directory Where to write the partition files, or null for the system's temporary directory. Each join
+     *                  makes its own directory inside it, and deletes it when it's done.
+     */
+    public JoinSpill(long memoryBudget, Codec<L> leftCodec, Codec<R> rightCodec, Path directory) {
+        if(memoryBudget < 1)
+            throw new IllegalArgumentException("A join needs a memory budget of at least 1 byte, got " + memoryBudget);
+
+        this.memoryBudget = memoryBudget;
+        this.leftCodec = Objects.requireNonNull(leftCodec);
+        this.rightCodec = Objects.requireNonNull(rightCodec);
+        this.directory = directory;
+    }
+
+    /**
+     * @return How many bytes the hash table can take
+     */
+    public long memoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Joins left with right, leaving both alone. See LinkedList.hashJoin.
+     */
+    <K, O> LinkedList<O> join(LinkedList<L> left, LinkedList<R> right, Function<? super L, ? extends K> leftKey,
+                              Function<? super R, ? extends K> rightKey,
+                              BiFunction<? super L, ? super R, ? extends O> combiner) throws IOException {
+        long estimate = 0;
+
+        for(R item : right)
+            estimate += sizeOf(rightCodec, item);
+
+        LinkedList<O> joined = new LinkedList<>();
+
+        if(estimate <= memoryBudget) {
+            Map<K, LinkedList<R>> table = new HashMap<>();
+
+            LinkedList.table(right, rightKey, table);
+            LinkedList.probe(left, item -> table.get(leftKey.apply(item)), combiner, joined);
+            return joined;
+        }
+
+        Path work = directory == null ? Files.createTempDirectory("hash-join") : Files.createTempDirectory(directory, "hash-join");
+
+        try {
+            split(consumer -> consumer.accept(right), consumer -> consumer.accept(left), estimate, 0, work, "",
+                    leftKey, rightKey, combiner, joined);
+            return joined;
+        }
+        finally {
+            Files.deleteIfExists(work);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Some items to split, a list at a time: the whole list at the first level, and a partition file's lists after.
+     */
+    @FunctionalInterface
+    private interface Lists<T> {
+        void forEach(ListConsumer<T> consumer) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ListConsumer<T> {
+        void accept(LinkedList<T> items) throws IOException;
+    }
+
+    /**
+     * Splits both sides into partition files with this level's hash, and joins the partitions one at a time. A
+     * partition whose build side still doesn't fit, and got smaller from being split, is split again one level down.
+     */
+    private <K, O> void split(Lists<R> right, Lists<L> left, long estimate, int level, Path work, String name,
+                              Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+                              BiFunction<? super L, ? super R, ? extends O> combiner, LinkedList<O> joined) throws IOException {
+        // Twice as many partitions as it would take if the keys split perfectly evenly, since they won't
+        int partitions = Buffers.powerOfTwoAtLeast((int) Math.min(estimate / memoryBudget + 1, MAX_PARTITIONS / 2)) * 2;
+        long flushBytes = Math.max(memoryBudget / (2L * partitions), MIN_FLUSH_BYTES);
+
+        try(Partitions<R> build = new Partitions<>(work, "build" + name, partitions, rightCodec, flushBytes);
+            Partitions<L> probe = new Partitions<>(work, "probe" + name, partitions, leftCodec, flushBytes)) {
+
+            build.addAll(right, rightKey, level);
+            probe.addAll(left, leftKey, level);
+
+            for(int partition = 0; partition < partitions; partition++) {
+                int current = partition;
+                long size = build.bytes(partition);
+
+                if(size > memoryBudget && size < estimate && level + 1 < MAX_LEVELS) {
+                    split(consumer -> build.read(current, consumer), consumer -> probe.read(current, consumer), size,
+                            level + 1, work, name + "-" + partition, leftKey, rightKey, combiner, joined);
+                }
+                else {
+                    Map<K, LinkedList<R>> table = new HashMap<>();
+                    build.read(partition, items -> LinkedList.table(items, rightKey, table));
+
+                    if(!table.isEmpty())
+                        probe.read(partition, items -> LinkedList.probe(items, item -> table.get(leftKey.apply(item)), combiner, joined));
+                }
+
+                build.delete(partition);
+                probe.delete(partition);
+            }
+        }
+    }
+
+    private static <T> long sizeOf(Codec<T> codec, T item) {
+        return ENTRY_OVERHEAD + (item == null ? 0 : codec.maxSize(item));
+    }
+
+    /**
+     * Which partition a key goes in, at a level of splitting. Each level mixes the hash with a different seed, so keys
+     * that landed together at one level are spread out at the next. The mixing is MurmurHash3's finalizer, which
+     * changes about half the bits of the result for any bit changed in the seed or the hash.
+     *
+     * The top bits of the mixed hash are used, because HashMap picks buckets with the bottom bits: if the partitions
+     * were picked with those too, every key in a partition would want the same few buckets of its table.
+     */
+    static int partitionOf(Object key, int partitions, int level) {
+        int mixed = Objects.hashCode(key) ^ (level * 0x9E3779B9);
+
+        mixed ^= mixed >>> 16;
+        mixed *= 0x85EBCA6B;
+        mixed ^= mixed >>> 13;
+        mixed *= 0xC2B2AE35;
+        mixed ^= mixed >>> 16;
+
+        return partitions == 1 ? 0 : mixed >>> (32 - Integer.numberOfTrailingZeros(partitions));
+    }
+
+    /**
+     * One side of the join, split into partition files. Each partition's items are gathered in a LinkedList, and when
+     * that gets to flushBytes, it's appended to the file with writeTo. A partition file is just those lists one after
+     * another, and readFrom never reads past the end of a list, so reading a partition back is one readFrom per list.
+     * Each partition also keeps a count of the guessed bytes of the items in it, to tell whether it fits the budget.
+     */
+    private static final class Partitions<T> implements AutoCloseable {
+
+        private final Codec<T> codec;
+
+        private final long flushBytes;
+
+        private final Path[] paths;
+
+        private final FileChannel[] files;
+
+        private final LinkedList<T>[] buffers;
+
+        private final long[] buffered;
+
+        private final long[] bytes;
+
+        private final int[] lists;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Partitions(Path directory, String name, int partitions, Codec<T> codec, long flushBytes) {
+            this.codec = codec;
+            this.flushBytes = flushBytes;
+
+            paths = new Path[partitions];
+            files = new FileChannel[partitions];
+            buffers = new LinkedList[partitions];
+            buffered = new long[partitions];
+            bytes = new long[partitions];
+            lists = new int[partitions];
+
+            for(int partition = 0; partition < partitions; partition++)
+                paths[partition] = directory.resolve(name + "-" + partition);
+        }
+
+        /**
+         * Puts every item in the partition its key goes in at this level, and writes them all out.
+         */
+        void addAll(Lists<T> lists, Function<? super T, ?> key, int level) throws IOException {
+            lists.forEach(items -> {
+                for(T item : items)
+                    add(partitionOf(key.apply(item), files.length, level), item);
+            });
+
+            flush();
+        }
+
+        void add(int partition, T item) throws IOException {
+            if(buffers[partition] == null)
+                buffers[partition] = new LinkedList<>();
+
+            long size = sizeOf(codec, item);
+            buffers[partition].append(item);
+            buffered[partition] += size;
+            bytes[partition] += size;
+
+            if(buffered[partition] >= flushBytes)
+                flush(partition);
+        }
+
+        /**
+         * Writes out everything that's still buffered, and closes the files for writing.
+         */
+        void flush() throws IOException {
+            for(int partition = 0; partition < files.length; partition++) {
+                if(buffers[partition] != null && buffers[partition].length() > 0)
+                    flush(partition);
+
+                buffers[partition] = null;
+
+                if(files[partition] != null) {
+                    files[partition].close();
+                    files[partition] = null;
+                }
+            }
+        }
+
+        private void flush(int partition) throws IOException {
+            if(files[partition] == null)
+                files[partition] = FileChannel.open(paths[partition], StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+            buffers[partition].writeTo(files[partition], codec);
+            buffers[partition].clear();
+            buffered[partition] = 0;
+            lists[partition]++;
+        }
+
+        /**
+         * @return The guessed bytes of every item put in the partition
+         */
+        long bytes(int partition) {
+            return bytes[partition];
+        }
+
+        /**
+         * Reads a partition back, after flush, one written list at a time, so only one list is ever read in at once.
+         */
+        void read(int partition, ListConsumer<T> consumer) throws IOException {
+            if(lists[partition] == 0)
+                return;
+
+            try(FileChannel file = FileChannel.open(paths[partition], StandardOpenOption.READ)) {
+                for(int list = 0; list < lists[partition]; list++)
+                    consumer.accept(LinkedList.readFrom(file, codec));
+            }
+        }
+
+        void delete(int partition) throws IOException {
+            Files.deleteIfExists(paths[partition]);
+        }
+
+        /**
+         * Closes anything still open and deletes every file, whether or not the join got that far.
+         */
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+
+            for(int partition = 0; partition < files.length; partition++) {
+                try {
+                    if(files[partition] != null)
+                        files[partition].close();
+
+                    Files.deleteIfExists(paths[partition]);
+                } catch(IOException e) {
+                    if(failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
+                }
+            }
+
+            if(failure != null)
+                throw failure;
+        }
+    }
+}
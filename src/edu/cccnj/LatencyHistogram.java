@@ -0,0 +1,133 @@
+package edu.cccnj;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many times each length of time came up, so you can ask things like "how long did the slowest 1% take?"
+ *
+ * Keeping every single time would take more and more memory the longer the program runs. Instead, the times are
+ * sorted into buckets, and only the count for each bucket is kept, which is a fixed amount of memory forever. The
+ * trick (borrowed from HdrHistogram) is picking the buckets so that the answer is always close:
+ *
+ * * Times under 32 nanoseconds each get a bucket of their own.
+ * * After that, every power of two (32-63, 64-127, 128-255, ...) is split into 32 equal buckets.
+ *
+ * So a bucket is never wider than 1/32 of the times in it, and every answer is within about 3% of the real time, from
+ * nanoseconds all the way up to years. Finding a time's bucket is a couple of bit operations.
+ *
+ * Any number of threads can record and read at once. A reader might see a recording that's only half done (the count
+ * but not the bucket, say), which can make an answer very slightly off, but never wrong by more than that one time.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Each power of two is split into 2^SUB_BUCKET_BITS buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Enough buckets for every positive long.
+     */
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one time.
+     * @param nanos How long it took. Anything below 0 counts as 0.
+     */
+    public void record(long nanos) {
+        if(nanos < 0)
+            nanos = 0;
+
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * @return How many times have been recorded
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return The average time, or 0 if nothing has been recorded
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * @return The longest time recorded, exactly
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Finds the time that percentile percent of the recorded times were at or under. percentile(50) is the median,
+     * and percentile(99) is the time only 1% of the times were slower than.
+     * @param percentile Between 0 and 100
+     * @return The time, within about 3%, or 0 if nothing has been recorded
+     */
+    public long percentile(double percentile) {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("A percentile has to be between 0 and 100, got " + percentile);
+
+        long n = count.sum();
+
+        if(n == 0)
+            return 0;
+
+        // The rank of the time we're looking for, counting from 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if(seen >= rank)
+                return Math.min(highestIn(i), max.get());
+        }
+
+        return max.get();
+    }
+
+    /**
+     * @return The bucket a time goes in
+     */
+    static int bucketOf(long nanos) {
+        if(nanos < SUB_BUCKETS)
+            return (int) nanos;
+
+        // Which power of two it's in, then which of that power's buckets, from the next SUB_BUCKET_BITS bits
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return The biggest time that goes in the bucket
+     */
+    static long highestIn(int bucket) {
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+
+        return lowest + width - 1;
+    }
+}
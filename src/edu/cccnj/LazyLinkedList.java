@@ -0,0 +1,450 @@
+package edu.cccnj;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * A list whose items aren't worked out until somebody asks for them. It can be a list of every natural number, or
+ * of every line of a file, without ever holding more than the part you've looked at.
+ *
+ * It's made of cells, like PersistentLinkedList, except that a cell can start out as a promise: a function (a
+ * "thunk") that works out the cell's item, and the rest of the list after it, the first time anybody asks. The rest of
+ * the list is another promise, so asking for the first item of range(0, 1000000) makes exactly one cell.
+ *
+ * Once a cell has been worked out, it remembers the answer ("memoizes" it), and the thunk is thrown away. Asking again
+ * gives back the same item and the same rest, without running anything. That's what makes it safe to build one from an
+ * Iterator, which can only be walked once: every cell takes exactly one item from the Iterator, the first time it's
+ * looked at, no matter how many times or from how many threads. Working a cell out is done under that cell's lock, so
+ * two threads can't both run its thunk; once it's done, reading it takes no lock at all.
+ *
+ * map, filter, take, takeWhile and drop give back new lazy lists, and don't work anything out either. So
+ *
+ * LazyLinkedList.iterate(1, x -> x * 3).filter(x -> x % 2 == 1).take(10)
+ *
+ * describes the first 10 odd powers of three, and only works out those 10 when it's walked.
+ *
+ * A cell that has been worked out keeps the rest of the list it made, so anything holding the front of a list keeps
+ * every cell that's been worked out after it. To walk a huge (or endless) list in a fixed amount of memory, don't keep
+ * the front: for(T item : LazyLinkedList.range(0, n)) only ever holds the cell it's on, and the cells behind it go to
+ * the garbage collector. LazyLinkedList.range(0, n).lazy().count() doesn't keep it either, but a list that's been
+ * put in a variable first keeps every cell until the variable goes away.
+ *
+ * Anything that walks the whole list (length, reduce, toLinkedList, ...) never finishes on an endless one.
+ * @param <T> The type of item in the list
+ */
+public final class LazyLinkedList<T> implements Iterable<T> {
+
+    /**
+     * The empty list. Every list that ends, ends with it.
+     */
+    private static final LazyLinkedList<Object> EMPTY = new LazyLinkedList<Object>(null, null);
+
+    /**
+     * The first item. Only meaningful once thunk is null, and rest isn't.
+     */
+    private T currentNode;
+
+    /**
+     * The rest of the list after currentNode, which may still be a promise. null for the empty list, once thunk is
+     * null.
+     */
+    private LazyLinkedList<T> rest;
+
+    /**
+     * Works out this cell: gives back a cell that's already worked out (the empty list, or one with an item), whose
+     * currentNode and rest this cell copies. null once that's been done.
+     *
+     * It's volatile so that a thread that sees it null also sees the currentNode and rest that were set before it was
+     * nulled out.
+     */
+    private volatile Supplier<LazyLinkedList<T>> thunk;
+
+    /**
+     * A cell that's already worked out.
+     */
+    private LazyLinkedList(T currentNode, LazyLinkedList<T> rest) {
+        this.currentNode = currentNode;
+        this.rest = rest;
+    }
+
+    /**
+     * A cell that's a promise.
+     */
+    private LazyLinkedList(Supplier<LazyLinkedList<T>> thunk) {
+        this.thunk = thunk;
+    }
+
+    /**
+     * @param <T> The type of item in the list
+     * @return The empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LazyLinkedList<T> empty() {
+        return (LazyLinkedList<T>) EMPTY;
+    }
+
+    /**
+     * The endless list seed, next(seed), next(next(seed)), ...
+     * @param seed The first item
+     * @param next Works out each item from the one before it
+     * @param <T> The type of item in the list
+     * @return The list
+     */
+    public static <T> LazyLinkedList<T> iterate(T seed, UnaryOperator<T> next) {
+        return new LazyLinkedList<T>(seed, new LazyLinkedList<T>(() -> iterate(next.apply(seed), next)));
+    }
+
+    /**
+     * Builds a list out of a state, one step at a time. Each step is given the state, and gives back the next item
+     * along with the state to work out the rest of the list from (Map.entry(item, nextState)), or null to end the
+     * list there. For example, the Fibonacci numbers are
+     *
+     * unfold(new long[] {0, 1}, s -> Map.entry(s[0], new long[] {s[1], s[0] + s[1]}))
+     * @param state The state to start from
+     * @param step Works out an item and the next state, or null if there are no more items
+     * @param <T> The type of item in the list
+     * @param <S> The type of the state
+     * @return The list
+     */
+    public static <T, S> LazyLinkedList<T> unfold(S state, Function<? super S, ? extends Map.Entry<? extends T, ? extends S>> step) {
+        return new LazyLinkedList<T>(() -> {
+            Map.Entry<? extends T, ? extends S> entry = step.apply(state);
+
+            if(entry == null)
+                return empty();
+
+            return new LazyLinkedList<T>(entry.getKey(), unfold(entry.getValue(), step));
+        });
+    }
+
+    /**
+     * The list from, from + 1, ..., to - 1. It's empty if to isn't bigger than from.
+     * @param from The first item
+     * @param to One past the last item
+     * @return The list
+     */
+    public static LazyLinkedList<Integer> range(int from, int to) {
+        return new LazyLinkedList<Integer>(() -> from < to ? new LazyLinkedList<Integer>(from, range(from + 1, to)) : empty());
+    }
+
+    /**
+     * A list of whatever the Iterator gives back. Items are taken from the Iterator as the list is walked, one at a time,
+     * and never more than once, so the list can be walked as many times as you like, even though the Iterator can't.
+     * @param iterator Where the items come from. Nothing else should use it afterwards.
+     * @param <T> The type of item in the list
+     * @return The list
+     */
+    public static <T> LazyLinkedList<T> fromIterator(Iterator<? extends T> iterator) {
+        return new LazyLinkedList<T>(() -> iterator.hasNext() ? new LazyLinkedList<T>(iterator.next(), fromIterator(iterator)) : empty());
+    }
+
+    /**
+     * @return The first item of the list, or null if the list is empty. Works out the first cell if it hasn't been yet.
+     */
+    public T first() {
+        force();
+        return currentNode;
+    }
+
+    /**
+     * @return Every item after the first one, which is probably still a promise. The rest of the empty list is the
+     * empty list.
+     */
+    public LazyLinkedList<T> rest() {
+        force();
+        return rest == null ? this : rest;
+    }
+
+    /**
+     * @return true if the list is empty. Works out the first cell if it hasn't been yet.
+     */
+    public boolean isEmpty() {
+        force();
+        return rest == null;
+    }
+
+    /**
+     * Gets an item from the list, working out every cell up to it. Indexing will begin at 0. For an index that is out
+     * of range, null will be returned.
+     * @param index The index of the item in the list
+     * @return The item found at the index
+     */
+    public T get(int index) {
+        if(index < 0)
+            return null;
+
+        LazyLinkedList<T> cell = this;
+
+        for(int i = 0; i < index && !cell.isEmpty(); i++)
+            cell = cell.rest;
+
+        return cell.first();
+    }
+
+    /**
+     * @return The length of the list, working out the whole thing. Never finishes on an endless list.
+     */
+    public int length() {
+        int length = 0;
+
+        for(LazyLinkedList<T> cell = this; !cell.isEmpty(); cell = cell.rest)
+            length++;
+
+        return length;
+    }
+
+    /**
+     * The first n items of the list, or the whole list if it's shorter.
+     * @param n How many items to keep
+     * @return The shorter list, which is still lazy
+     */
+    public LazyLinkedList<T> take(int n) {
+        LazyLinkedList<T> list = this;
+
+        return new LazyLinkedList<T>(() -> {
+            if(n <= 0 || list.isEmpty())
+                return empty();
+
+            return new LazyLinkedList<T>(list.currentNode, list.rest.take(n - 1));
+        });
+    }
+
+    /**
+     * The same as take, by the name java.util.stream and Pipeline use for it.
+     * @param n How many items to keep
+     * @return The shorter list, which is still lazy
+     */
+    public LazyLinkedList<T> limit(int n) {
+        return take(n);
+    }
+
+    /**
+     * The items from the front of the list for as long as the predicate is true of them, up to (but not including) the
+     * first one it isn't.
+     * @param predicate The predicate to test with
+     * @return The shorter list, which is still lazy
+     */
+    public LazyLinkedList<T> takeWhile(Predicate<? super T> predicate) {
+        LazyLinkedList<T> list = this;
+
+        return new LazyLinkedList<T>(() -> {
+            if(list.isEmpty() || !predicate.test(list.currentNode))
+                return empty();
+
+            return new LazyLinkedList<T>(list.currentNode, list.rest.takeWhile(predicate));
+        });
+    }
+
+    /**
+     * Everything but the first n items of the list.
+     * @param n How many items to skip
+     * @return The shorter list, which is still lazy
+     */
+    public LazyLinkedList<T> drop(int n) {
+        AtomicReference<LazyLinkedList<T>> start = new AtomicReference<LazyLinkedList<T>>(this);
+
+        return new LazyLinkedList<T>(() -> {
+            // Let go of the front while walking, the same as filter does
+            LazyLinkedList<T> cell = start.getAndSet(null);
+
+            for(int i = 0; i < n && !cell.isEmpty(); i++)
+                cell = cell.rest;
+
+            cell.force();
+            return cell;
+        });
+    }
+
+    /**
+     * Applies the function to every item of the list, as each one is asked for.
+     * @param function The function that we'll be using on the list
+     * @param <R> The return type of the function
+     * @return The new list, which is still lazy
+     */
+    public <R> LazyLinkedList<R> map(Function<? super T, ? extends R> function) {
+        LazyLinkedList<T> list = this;
+
+        return new LazyLinkedList<R>(() -> {
+            if(list.isEmpty())
+                return empty();
+
+            return new LazyLinkedList<R>(function.apply(list.currentNode), list.rest.map(function));
+        });
+    }
+
+    /**
+     * Only the items of the list for which the predicate is true. Working out a cell of the filtered list walks ahead
+     * until it finds the next item that matches, so filtering an endless list that never matches again never finishes.
+     * @param predicate The predicate to filter with
+     * @return The new list, which is still lazy
+     */
+    public LazyLinkedList<T> filter(Predicate<? super T> predicate) {
+        AtomicReference<LazyLinkedList<T>> start = new AtomicReference<LazyLinkedList<T>>(this);
+
+        return new LazyLinkedList<T>(() -> {
+            // The thunk only runs once, so it can let go of where it started. Otherwise the cells it walks past while
+            // looking for a match would all be kept, since the thunk would still be holding the first of them.
+            LazyLinkedList<T> cell = start.getAndSet(null);
+
+            // A loop, not a recursive call, so a long stretch of items that don't match can't overflow the stack
+            while(!cell.isEmpty() && !predicate.test(cell.currentNode))
+                cell = cell.rest;
+
+            if(cell.isEmpty())
+                return empty();
+
+            return new LazyLinkedList<T>(cell.currentNode, cell.rest.filter(predicate));
+        });
+    }
+
+    /**
+     * Reduces the list exactly like LinkedList.reduce: the bifunction is given (item, valueSoFar), and the first
+     * valueSoFar is initialValue. Works out the whole list, with lazy(). The list it's called on is the front, though,
+     * so every cell is kept until it's done; for a fixed amount of memory, use lazy().reduce on a list nothing holds.
+     * @param bifunction The bifunction that we'll be using
+     * @param initialValue The initial value
+     * @return The result after reducing the list
+     */
+    public T reduce(BiFunction<T, T, T> bifunction, T initialValue) {
+        return this.lazy().reduce(bifunction, initialValue);
+    }
+
+    /**
+     * Copies the list into a new, changeable LinkedList, working out the whole thing with lazy(). Like reduce, it keeps
+     * every cell until it's done, since the list it's called on is the front.
+     * @return The LinkedList
+     */
+    public LinkedList<T> toLinkedList() {
+        return this.lazy().collect();
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list. The Pipeline works out cells as it goes, and stops working them out as
+     * soon as it stops pulling items (see Pipeline.limit and Pipeline.takeWhile). See LinkedList.lazy().
+     *
+     * The Pipeline doesn't hold on to the front of the list while it runs: it walks the cells with the same Iterator as
+     * iterator(), so the cells it's passed can be garbage collected (if nothing else holds the front). That's what lets
+     * range(0, n).lazy().count() run in a fixed amount of memory. The price is that it can only be run once, since
+     * running it again would mean keeping the front around the first time. Call lazy() again for a second run.
+     * @return A Pipeline whose source is this list, that can be run once
+     */
+    public Pipeline<T> lazy() {
+        AtomicReference<LazyLinkedList<T>> front = new AtomicReference<LazyLinkedList<T>>(this);
+
+        return Pipeline.of(sink -> {
+            LazyLinkedList<T> first = front.getAndSet(null);
+
+            if(first == null)
+                throw new IllegalStateException("A Pipeline over a LazyLinkedList can only be run once; call lazy() again");
+
+            Iterator<T> cells = new CellIterator<T>(first);
+            first = null;
+
+            while(cells.hasNext())
+                if(!sink.accept(cells.next()))
+                    return false;
+
+            return true;
+        });
+    }
+
+    /**
+     * Iterates over the list, working out each cell as it gets to it. The Iterator only ever holds on to the cell it's
+     * on, so if nothing else holds the front of the list, the cells it's passed can be garbage collected.
+     * @return The Iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new CellIterator<T>(this);
+    }
+
+    /**
+     * The Iterator for iterator(). It's a static class, rather than an anonymous one, because an anonymous class would
+     * quietly keep a reference to the list it came from, which is the front.
+     */
+    private static final class CellIterator<T> implements Iterator<T> {
+
+        private LazyLinkedList<T> next;
+
+        CellIterator(LazyLinkedList<T> first) {
+            next = first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !next.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if(next.isEmpty())
+                throw new NoSuchElementException();
+
+            T item = next.currentNode;
+            next = next.rest;
+            return item;
+        }
+    }
+
+    /**
+     * Prints out the part of the list that's been worked out so far, the same way LinkedList does, with ... where the
+     * part that hasn't been worked out yet starts: [1, [2, ...]]. This never works anything out, so it's safe to call on
+     * an endless list.
+     * @return The string representing this list
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        int open = 0;
+        LazyLinkedList<T> cell = this;
+
+        while(cell.thunk == null && cell.rest != null) {
+            if(open > 0)
+                builder.append(", ");
+
+            builder.append('[').append(cell.currentNode);
+            open++;
+            cell = cell.rest;
+        }
+
+        if(cell.thunk != null)
+            builder.append(open > 0 ? ", ..." : "[...]");
+        else if(open == 0)
+            builder.append("[]");
+
+        for(int i = 0; i < open; i++)
+            builder.append(']');
+
+        return builder.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Works out this cell, if it hasn't been yet. Only one thread ever runs the thunk.
+     */
+    private void force() {
+        if(thunk == null)
+            return;
+
+        synchronized(this) {
+            Supplier<LazyLinkedList<T>> pending = thunk;
+
+            if(pending == null)
+                return;
+
+            LazyLinkedList<T> cell = pending.get();
+            currentNode = cell.currentNode;
+            rest = cell.rest;
+
+            // Last, so that anyone who sees it null sees the two fields above
+            thunk = null;
+        }
+    }
+}
@@ -1,27 +1,49 @@
 package edu.cccnj;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The base class for collections which act like LinkedLists.
+ *
+ * The list itself is made out of Nodes (see {@link Node}), each of which holds one item and a reference to the rest
+ * of the list after it. The LinkedList object is the "handle" to that chain of Nodes: it remembers where the chain
+ * starts (head), where it ends (tail), and how long it is (size). Keeping those three things around is what lets
+ * append and length run in constant time, instead of walking the entire list every time they're called.
  * @author natepisarski, rypriore
  */
-public class LinkedList<T> {
+public class LinkedList<T> implements Iterable<T> {
 
     /**
-     * The current Node of the Linked List. This is the data that the list holds. In array terms, take for example:
-     * int a[] = {1, 2, 3, 4, 5}
-     *
-     * If this Node is the Head of the list, currentNode would be 1.
-     */
-    private T currentNode;
-
-    /**
-     * A reference to the rest of the LinkedList. Notice that the type of this variable is the same as the class we're
-     * in. Thus, it is a recursive data structure. The methods we implement must work in a recursive fashion in order
-     * to manipulate the list.
+     * A single link in the chain. Notice that the type of rest is the same as the class it's in. Thus, it is a
+     * recursive data structure.
      *
      * Since it's recursive, for each item in the list, it contains a reference to the rest of the list after it. So
      * while an array may look like
@@ -31,47 +53,121 @@ public class LinkedList<T> {
      * A LinkedList looks more like
      *
      * [1, [2, [3, [4, [5]]]]]
+     *
+     * We used to walk this structure with recursion, one method call per Node. That is elegant, but every method call
+     * takes up a frame on the thread's stack, and the stack is not very big. At around ten thousand elements the JVM
+     * gives up with a StackOverflowError. So now we walk it with a plain loop, moving a reference from Node to Node.
+     * @param <T> The type of the item held by the Node
+     */
+    static final class Node<T> {
+
+        /**
+         * The current Node of the Linked List. This is the data that the list holds. In array terms, take for example:
+         * int a[] = {1, 2, 3, 4, 5}
+         *
+         * If this Node is the Head of the list, currentNode would be 1.
+         */
+        T currentNode;
+
+        /**
+         * A reference to the rest of the LinkedList. Rest is null if this is the end of the list.
+         */
+        Node<T> rest;
+
+        Node(T currentNode) {
+            this.currentNode = currentNode;
+        }
+    }
+
+    /**
+     * The first Node of the list, or null if the list is empty.
      */
-    private LinkedList<T> rest;
+    private Node<T> head;
 
     /**
-     * Rest is Null if this is the end of the list. It will always start out this way.
+     * The last Node of the list, or null if the list is empty. Caching this is what makes append O(1).
+     */
+    private Node<T> tail;
+
+    /**
+     * How many items are in the list. Caching this is what makes length O(1).
+     */
+    private int size;
+
+    /**
+     * Counts every change to the list. Iterators remember it when they start, and if it's different later, they know
+     * the list was changed out from under them. See iterator().
+     */
+    private int modCount;
+
+    /**
+     * Where Nodes come from and go back to, or null to make Nodes the normal way. See NodePool.
+     */
+    private NodePool pool;
+
+    /**
+     * Creates an empty list.
      */
     public LinkedList() {
-        rest = null;
+        head = null;
+        tail = null;
+        size = 0;
     }
 
     /**
-     * This constructor sets what the current node is equal to.
-     * @param currentNode The current node of the class. See documentation on currentNode.
+     * Creates a list with one item in it.
+     * @param currentNode The first item of the list. See documentation on Node.currentNode.
      */
     public LinkedList(T currentNode) {
         this();
-        this.currentNode = currentNode;
+        append(currentNode);
     }
 
     /**
-     * Puts the item at the end of the entire LinkedList structure. While this may seem obvious, consider:
-     *
-     * Every node holds a reference to the rest of the list. So, any node will also have the append(T) method.
+     * Creates an empty list that recycles its Nodes through the calling thread's NodePool. Items taken off with
+     * removeFirst or clear give their Nodes back, and append reuses them, so a list that's constantly filled and
+     * emptied stops making new objects once it's warmed up.
+     * @param <T> The type of item in the list
+     * @return The empty list
+     */
+    public static <T> LinkedList<T> pooled() {
+        return pooled(NodePool.perThread());
+    }
+
+    /**
+     * Creates an empty list that recycles its Nodes through the given NodePool.
+     * @param pool Where to get Nodes from and give them back to
+     * @param <T> The type of item in the list
+     * @return The empty list
+     */
+    public static <T> LinkedList<T> pooled(NodePool pool) {
+        LinkedList<T> list = new LinkedList<T>();
+        list.pool = pool;
+        return list;
+    }
+
+    /**
+     * Puts the item at the end of the entire LinkedList structure.
      *
-     * The approach here is to find the end of the list, and make the node there. Each time the function runs it should
-     * be doing these checks. This is a recursive method.
+     * Since we always know where the last Node is, there's no need to go looking for the end of the list. We just
+     * hang a new Node off of the tail, and make that new Node the tail.
      * @param item The item you want at the end of the list.
      */
     public void append(T item) {
 
-        // If, for some reason, the list was created with a no-argument constructor, we just append it here
-        if(currentNode == null)
-            currentNode = item;
+        Node<T> node = newNode(item);
 
-        // We're at the end of the list, since rest is null. Make rest a new LinkedList where currentNode is the item
-        else if(rest == null)
-            rest = new LinkedList<T>(item);
+        // Empty list: the new Node is both the start and the end of the list
+        if(tail == null)
+            head = node;
 
-        // We're not at the end. rest is a LinkedList. Pass of the method call to that LinkedList instead of this one.
+        // Otherwise the old tail now points at the new Node
         else
-            rest.append(item);
+            tail.rest = node;
+
+        tail = node;
+        size++;
+        modCount++;
     }
 
     /**
@@ -83,54 +179,35 @@ public class LinkedList<T> {
      */
     public T get(int index){
         /*
-        Strategy: Since LinkedLists are recursive, we have to... recurse. Kind of a head scratcher there.
-
-        So, you have to consider what every single step of this function is going to be doing every time it runs.
-
-        If we give this function 0, what should it do? Well, simply just return currentNode. It's the first item.
-
-        But what if it's more than 0? Say, 1? We need the next item. So we would call
+        Strategy: Start at the head, and step to rest as many times as the index says.
 
-        rest.get(0), since that will get the currentNode in rest. Simple. But.. what if we get 16? We can't really keep
-        checking for numbers. But before freaking out, notice the pattern?
+        You want the first element? Give the function 0, we don't step at all.
+        You want the second element? Give the function 1, we step once.
 
-        You want the first element? Give the function 0, it gives you the first element.
-        You want the second element? Give the function 1, we give 0 to the next function.
-        You want the third element? Give the function 2, we give 1 to the next function, and that will give 0 to the one after that
-
-        So, every time we recurse here, we want the index to either return the current node, or call the function
-        on the next element, with one less index.
+        The last element is a special case, since we already know where it is.
          */
 
         // Are you drunk?
-        if(index < 0)
+        if(index < 0 || index >= size)
             return null;
 
-        if(index == 0)
-            return currentNode; // Found the index! Give the currentNode back.
-
-        else if(rest == null)
-            return null; // The index is greater than 0, and there's no more list. Give back null. Prevents NullPointerException
+        if(index == size - 1)
+            return tail.currentNode;
 
-        else
-            return rest.get(index - 1); // Keep going with a decremented index.
+        Node<T> node = head;
+        for(int i = 0; i < index; i++)
+            node = node.rest;
 
+        return node.currentNode;
     }
 
     /**
-     * Returns the length of the LinkedList. This will begin measuring at the first element. So:
-     * [1] has a length of one. [1, [2]] has a length of two. etc.
+     * Returns the length of the LinkedList. So:
+     * [] has a length of zero. [1] has a length of one. [1, [2]] has a length of two. etc.
      * @return The length of the LinkedList.
      */
     public int length(){
-
-        if(rest == null) // Last element of the list! Count this element and stop recursing
-            return 1;
-        else
-
-            //  CurrentElement  Length of rest
-            //     V                 V
-            return 1 +         rest.length();
+        return size;
     }
 
     /**
@@ -143,27 +220,738 @@ public class LinkedList<T> {
      * @param <T> The type parameter
      * @return The LinkedList with these items added onto it.
      */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
     public static <T> LinkedList<T> generate(T...items){
 
         LinkedList<T> localList = new LinkedList<T>();
-
-        for(T item : items)
-            localList.append(item);
+        localList.appendAll(items);
 
         return localList;
     }
 
+    /*
+    The bulk versions of append. Each one builds its whole chain of Nodes off to the side, then hooks it onto the tail
+    in one step, so size and modCount are only touched once per batch instead of once per item.
+     */
+
+    /**
+     * Puts every item of the array at the end of the list, in order.
+     * @param items The items to append
+     */
+    public void appendAll(T[] items)
+    {
+        if(items.length == 0)
+            return;
+
+        Node<T> first = newNode(items[0]);
+        Node<T> last = first;
+
+        for(int i = 1; i < items.length; i++) {
+            last.rest = newNode(items[i]);
+            last = last.rest;
+        }
+
+        link(first, last, items.length);
+    }
 
     /**
-     * Prints out the LinkedList like it were stack frames. Even toString must be recursive.
+     * Puts every item of the collection at the end of the list, in the collection's iteration order.
+     * @param items The items to append
+     */
+    public void appendAll(Collection<? extends T> items)
+    {
+        appendAll(items, items.size());
+    }
+
+    /**
+     * Puts a copy of every item of the other list at the end of this one. The other list doesn't change; if you don't
+     * need it anymore, concat does the same thing in O(1) by moving its Nodes instead of copying them.
+     * @param other The list whose items to append. It can be this list.
+     */
+    public void appendAll(LinkedList<? extends T> other)
+    {
+        appendAll(other, other.size);
+    }
+
+    private void appendAll(Iterable<? extends T> items, int count)
+    {
+        if(count == 0)
+            return;
+
+        Node<T> first = null;
+        Node<T> last = null;
+        int linked = 0;
+
+        // Nothing is hooked on until the end, so appending a list to itself stops where the list ended
+        for(T item : items) {
+            Node<T> node = newNode(item);
+
+            if(first == null)
+                first = node;
+            else
+                last.rest = node;
+
+            last = node;
+            linked++;
+        }
+
+        if(first != null)
+            link(first, last, linked);
+    }
+
+    /**
+     * Removes the first item of the list. This is O(1), since the head is right there, which makes a LinkedList a
+     * fine Queue: append at the back, removeFirst at the front.
+     * @return The item that was first, or null if the list is empty
+     */
+    public T removeFirst()
+    {
+        if(head == null)
+            return null;
+
+        Node<T> node = head;
+        T item = node.currentNode;
+
+        head = node.rest;
+
+        if(head == null)
+            tail = null;
+
+        size--;
+        modCount++;
+        release(node);
+
+        return item;
+    }
+
+    /**
+     * Removes every item from the list. If the list is pooled, all of its Nodes go back to the pool.
+     */
+    public void clear()
+    {
+        if(pool != null) {
+            Node<T> node = head;
+
+            while(node != null) {
+                Node<T> next = node.rest;
+                pool.recycle(node);
+                node = next;
+            }
+        }
+
+        head = null;
+        tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Makes a Node holding item, from the pool if the list has one.
+     */
+    private Node<T> newNode(T item)
+    {
+        return pool == null ? new Node<T>(item) : pool.obtain(item);
+    }
+
+    /**
+     * Lets go of a Node that's been taken out of the list. Its item is nulled out either way, so that anything still
+     * holding on to the Node (an abandoned Iterator, say) doesn't keep the item from being garbage collected.
+     */
+    private void release(Node<T> node)
+    {
+        if(pool != null) {
+            pool.recycle(node);
+        } else {
+            node.currentNode = null;
+            node.rest = null;
+        }
+    }
+
+    /**
+     * Hooks a chain of Nodes onto the tail.
+     */
+    private void link(Node<T> first, Node<T> last, int count)
+    {
+        if(tail == null)
+            head = first;
+        else
+            tail.rest = first;
+
+        tail = last;
+        size += count;
+        modCount++;
+    }
+
+
+    /**
+     * Prints out the LinkedList like it were stack frames, [1, [2, [3]]].
+     *
+     * Every item opens a bracket, and all of the brackets get closed at the very end. That gives the same nested
+     * picture as the old recursive version, without the recursion.
      * @return The string representing this LinkedList
      */
     public String toString()
     {
-        if(rest == null)
-            return "[" + currentNode.toString() + "]";
+        if(size == 0)
+            return "[]";
+
+        StringBuilder builder = new StringBuilder();
+
+        for(Node<T> node = head; node != null; node = node.rest) {
+            builder.append('[').append(node.currentNode);
+
+            if(node.rest != null)
+                builder.append(", ");
+        }
+
+        for(int i = 0; i < size; i++)
+            builder.append(']');
+
+        return builder.toString();
+    }
+
+    /**
+     * Moves every Node of other onto the end of this list, leaving other empty. Nothing gets copied; the tail of this
+     * list is just pointed at the head of the other one, so this is O(1) no matter how long either list is.
+     * @param other The list to splice on. It's empty afterwards.
+     */
+    public void concat(LinkedList<T> other)
+    {
+        if(other == this || other.head == null)
+            return;
+
+        if(tail == null)
+            head = other.head;
         else
-            return "[" + currentNode.toString() + ", " + rest.toString() + "]";
+            tail.rest = other.head;
+
+        tail = other.tail;
+        size += other.size;
+        modCount++;
+        other.modCount++;
+
+        other.head = null;
+        other.tail = null;
+        other.size = 0;
+    }
+
+    /*
+    Sorting. Copying into an array, sorting that, and copying back costs an array and a second trip through the list.
+    A LinkedList can be sorted in place instead, by pointing the rest references at different Nodes: the items never
+    move, only the links between them do. Merge sort is a natural fit for that, since merging two sorted chains is just
+    a matter of picking whichever head is smaller, over and over, and linking it on.
+     */
+
+    /**
+     * The size of piece parallelSort stops cutting at: a list or piece of this many items or fewer is sorted
+     * sequentially, since splitting it further would cost more than it saves.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    /**
+     * Sorts the list in place. This is a "natural" merge sort, done bottom-up:
+     *
+     * * Walk the list once, breaking it into "runs": stretches that are already in order. A stretch in strictly
+     *   descending order is reversed as it's found, so it counts as a run too. Data that's already sorted, or sorted
+     *   backwards, is just one run, and the sort is O(n).
+     *
+     * * Merge the runs like counting in binary. Slot 0 holds one run, slot 1 two runs' worth, slot 2 four, and so on.
+     *   Each new run "carries" up through the full slots, merging with each one, until it lands in an empty slot. At
+     *   the end, the slots are merged together. Runs are only ever merged with runs of about the same size, which is
+     *   what keeps the whole thing O(n log n).
+     *
+     * There's no recursion, so there's no list too long to sort, and no Nodes or items are copied. The sort is stable:
+     * items that compare equal stay in the order they were in.
+     * @param comparator Decides which item comes first. If it's null, the items' natural ordering is used.
+     */
+    public void sort(Comparator<? super T> comparator)
+    {
+        if(size < 2)
+            return;
+
+        Merger<T> merger = new Merger<T>(comparator);
+        head = merger.sort(head);
+        tail = merger.tail;
+        modCount++;
+    }
+
+    /**
+     * Sorts the list in place, using every thread of the common ForkJoinPool. See parallelSort(Comparator, ForkJoinPool).
+     * @param comparator Decides which item comes first. If it's null, the items' natural ordering is used.
+     */
+    public void parallelSort(Comparator<? super T> comparator)
+    {
+        parallelSort(comparator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts the list in place, using the threads of the pool. The list is cut in half, and each half is cut in half
+     * again, until the pieces are small enough to sort the way sort() does. The pieces are sorted at the same time, on
+     * different threads, and then merged back together, pairs of them at the same time. Like sort(), it's stable, and
+     * nothing is copied.
+     *
+     * Lists shorter than a few thousand items just get sort(), since splitting them up would cost more than it saves.
+     * @param comparator Decides which item comes first. If it's null, the items' natural ordering is used.
+     * @param pool The pool to sort on
+     */
+    public void parallelSort(Comparator<? super T> comparator, ForkJoinPool pool)
+    {
+        if(size <= PARALLEL_SORT_THRESHOLD) {
+            sort(comparator);
+            return;
+        }
+
+        SortTask<T> task = new SortTask<T>(head, size, comparator);
+        head = pool.invoke(task);
+        tail = task.tail;
+        modCount++;
+    }
+
+    /**
+     * Merges lists that are each already sorted, by their items' natural ordering, into one sorted list. See
+     * mergeSorted(Comparator, LinkedList...).
+     * @param lists The sorted lists. They're all empty afterwards.
+     * @param <T> The type of item in the lists
+     * @return A sorted list of every item of every list
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T extends Comparable<? super T>> LinkedList<T> mergeSorted(LinkedList<T>... lists)
+    {
+        return mergeSorted((Comparator<? super T>) null, lists);
+    }
+
+    /**
+     * Merges lists that are each already sorted (shards sorted on different threads or machines, say) into one sorted
+     * list. Like concat, this moves the Nodes instead of copying them, so every list given is left empty.
+     *
+     * The lists are merged in pairs, and then the pairs in pairs, and so on, so every item is looked at about log k
+     * times for k lists, instead of k times for merging them in one at a time. Items that compare equal keep the order
+     * of the lists they came from.
+     * @param comparator The order the lists are sorted in. If it's null, the items' natural ordering is used.
+     * @param lists The sorted lists. They're all empty afterwards.
+     * @param <T> The type of item in the lists
+     * @return A sorted list of every item of every list
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static <T> LinkedList<T> mergeSorted(Comparator<? super T> comparator, LinkedList<T>... lists)
+    {
+        Node<T>[] heads = (Node<T>[]) new Node<?>[lists.length];
+        Node<T>[] tails = (Node<T>[]) new Node<?>[lists.length];
+        int count = 0;
+        int total = 0;
+
+        for(LinkedList<T> list : lists) {
+            // A list given twice is already empty the second time
+            if(list.head == null)
+                continue;
+
+            heads[count] = list.head;
+            tails[count] = list.tail;
+            count++;
+            total += list.size;
+
+            list.head = null;
+            list.tail = null;
+            list.size = 0;
+            list.modCount++;
+        }
+
+        Merger<T> merger = new Merger<T>(comparator);
+
+        while(count > 1) {
+            int merged = 0;
+
+            for(int i = 0; i + 1 < count; i += 2) {
+                heads[merged] = merger.merge(heads[i], tails[i], heads[i + 1], tails[i + 1]);
+                tails[merged] = merger.tail;
+                merged++;
+            }
+
+            // An odd one out waits for the next round
+            if(count % 2 == 1) {
+                heads[merged] = heads[count - 1];
+                tails[merged] = tails[count - 1];
+                merged++;
+            }
+
+            count = merged;
+        }
+
+        LinkedList<T> result = new LinkedList<T>();
+
+        if(count == 1)
+            result.link(heads[0], tails[0], total);
+
+        return result;
+    }
+
+    /**
+     * Merges chains of Nodes. A chain is a head and a tail, with a null rest at the tail. Every merge leaves the tail of
+     * what it made in tail, so the callers always know both ends without walking to the end.
+     */
+    private static final class Merger<T> {
+
+        /**
+         * Enough slots for 2^64 runs, which is more than any list can have.
+         */
+        private static final int SLOTS = 64;
+
+        private final Comparator<? super T> comparator;
+
+        /**
+         * The tail of whatever merge or sort made last.
+         */
+        Node<T> tail;
+
+        Merger(Comparator<? super T> comparator) {
+            this.comparator = comparator == null ? LinkedList::compareNaturally : comparator;
+        }
+
+        /**
+         * Merges chain a with chain b, where a came first in the list. On a tie, the item from a goes first, which is
+         * what makes the sort stable.
+         */
+        Node<T> merge(Node<T> a, Node<T> aTail, Node<T> b, Node<T> bTail) {
+            // Already in order: all of a, then all of b
+            if(comparator.compare(b.currentNode, aTail.currentNode) >= 0) {
+                aTail.rest = b;
+                tail = bTail;
+                return a;
+            }
+
+            Node<T> first;
+
+            if(comparator.compare(b.currentNode, a.currentNode) < 0) {
+                first = b;
+                b = b.rest;
+            } else {
+                first = a;
+                a = a.rest;
+            }
+
+            Node<T> last = first;
+
+            while(a != null && b != null) {
+                if(comparator.compare(b.currentNode, a.currentNode) < 0) {
+                    last.rest = b;
+                    last = b;
+                    b = b.rest;
+                } else {
+                    last.rest = a;
+                    last = a;
+                    a = a.rest;
+                }
+            }
+
+            // Whatever's left of either chain is already in order, so it goes on as it is
+            if(a != null) {
+                last.rest = a;
+                tail = aTail;
+            } else {
+                last.rest = b;
+                tail = b != null ? bTail : last;
+            }
+
+            return first;
+        }
+
+        /**
+         * Sorts a whole chain, the way LinkedList.sort describes.
+         */
+        @SuppressWarnings("unchecked")
+        Node<T> sort(Node<T> node) {
+            Node<T>[] heads = (Node<T>[]) new Node<?>[SLOTS];
+            Node<T>[] tails = (Node<T>[]) new Node<?>[SLOTS];
+            int used = 0;
+
+            while(node != null) {
+                Node<T> runHead = node;
+                Node<T> runTail = node;
+                node = node.rest;
+
+                if(node != null && comparator.compare(node.currentNode, runHead.currentNode) < 0) {
+                    // Strictly descending, so turn it around as we go. It has to be strictly, so that equal items
+                    // don't get turned around too.
+                    while(node != null && comparator.compare(node.currentNode, runHead.currentNode) < 0) {
+                        Node<T> next = node.rest;
+                        node.rest = runHead;
+                        runHead = node;
+                        node = next;
+                    }
+                } else {
+                    while(node != null && comparator.compare(node.currentNode, runTail.currentNode) >= 0) {
+                        runTail = node;
+                        node = node.rest;
+                    }
+                }
+
+                runTail.rest = null;
+
+                // Carry the run up through the full slots. Everything in a slot came before the run.
+                int slot = 0;
+
+                while(heads[slot] != null) {
+                    runHead = merge(heads[slot], tails[slot], runHead, runTail);
+                    runTail = tail;
+                    heads[slot] = null;
+                    tails[slot] = null;
+                    slot++;
+                }
+
+                heads[slot] = runHead;
+                tails[slot] = runTail;
+                used = Math.max(used, slot + 1);
+            }
+
+            // Lower slots hold later parts of the list, so each higher slot goes in front
+            Node<T> sorted = null;
+            Node<T> sortedTail = null;
+
+            for(int slot = 0; slot < used; slot++) {
+                if(heads[slot] == null)
+                    continue;
+
+                if(sorted == null) {
+                    sorted = heads[slot];
+                    sortedTail = tails[slot];
+                } else {
+                    sorted = merge(heads[slot], tails[slot], sorted, sortedTail);
+                    sortedTail = tail;
+                }
+            }
+
+            tail = sortedTail;
+            return sorted;
+        }
+    }
+
+    /**
+     * Sorts count Nodes starting at head for parallelSort, by splitting them in two until the pieces are small enough,
+     * and merging the sorted halves. Once it's done, tail is the tail of the sorted chain.
+     */
+    @SuppressWarnings("serial")
+    private static final class SortTask<T> extends RecursiveTask<Node<T>> {
+
+        private final Node<T> head;
+
+        private final int count;
+
+        private final Comparator<? super T> comparator;
+
+        Node<T> tail;
+
+        SortTask(Node<T> head, int count, Comparator<? super T> comparator) {
+            this.head = head;
+            this.count = count;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            Merger<T> merger = new Merger<T>(comparator);
+
+            if(count <= PARALLEL_SORT_THRESHOLD) {
+                Node<T> sorted = merger.sort(head);
+                tail = merger.tail;
+                return sorted;
+            }
+
+            // Cut the chain after the first half
+            int half = count / 2;
+            Node<T> middle = head;
+
+            for(int i = 1; i < half; i++)
+                middle = middle.rest;
+
+            Node<T> second = middle.rest;
+            middle.rest = null;
+
+            SortTask<T> left = new SortTask<T>(head, half, comparator);
+            SortTask<T> right = new SortTask<T>(second, count - half, comparator);
+
+            left.fork();
+            Node<T> rightSorted = right.compute();
+            Node<T> leftSorted = left.join();
+
+            Node<T> sorted = merger.merge(leftSorted, left.tail, rightSorted, right.tail);
+            tail = merger.tail;
+            return sorted;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNaturally(Object a, Object b)
+    {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Gives back an Iterator over the items, front to back. Implementing Iterable is what lets you write
+     *
+     * for(T item : list)
+     *
+     * which walks the list once, from Node to Node. Compare that with a loop calling get(i), which has to start over from
+     * the head for every single i.
+     *
+     * The Iterator is "fail-fast": if the list is changed while you're iterating, other than through the Iterator
+     * itself, the next call throws ConcurrentModificationException, rather than carrying on with a list that may not
+     * be what you think it is.
+     * @return The Iterator
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>() {
+            private Node<T> next = head;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if(modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+
+                if(next == null)
+                    throw new NoSuchElementException();
+
+                T item = next.currentNode;
+                next = next.rest;
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Gives back a Spliterator over the items, which is what java.util.stream uses to walk (and split up) a collection.
+     * See NodeSpliterator.
+     * @return The Spliterator
+     */
+    @Override
+    public Spliterator<T> spliterator()
+    {
+        return new NodeSpliterator();
+    }
+
+    /**
+     * @return A sequential java.util.stream.Stream of the items
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return A parallel java.util.stream.Stream of the items
+     */
+    public Stream<T> parallelStream()
+    {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Walks the Nodes for a Stream.
+     *
+     * For a parallel Stream, the Spliterator gets asked to split itself in two, so that each half can go to a different
+     * thread. An array can just be cut in the middle, but a LinkedList can't jump to the middle without walking there.
+     * So instead, each split copies the next batch of items into an array and hands that off, keeping the rest of the
+     * list for itself. The batches get bigger with each split, so a long list is split into a handful of big pieces
+     * instead of thousands of tiny ones. This is the same way java.util.LinkedList does it.
+     *
+     * Since we always know how many items are left, both halves are SIZED, and the array halves can be split evenly from
+     * then on (SUBSIZED).
+     */
+    private final class NodeSpliterator implements Spliterator<T> {
+
+        /**
+         * How many items the first split hands off. Each split after that hands off this many more.
+         */
+        private static final int BATCH_INCREMENT = 1 << 10;
+
+        /**
+         * The most items one split hands off.
+         */
+        private static final int MAXIMUM_BATCH = 1 << 25;
+
+        private Node<T> next = head;
+        private int remaining = size;
+        private int batch = 0;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if(remaining == 0)
+                return false;
+
+            checkForChanges();
+
+            T item = next.currentNode;
+            next = next.rest;
+            remaining--;
+            action.accept(item);
+
+            checkForChanges();
+            return true;
+        }
+
+        /**
+         * The check comes before every step, not just at the end: a removed Node has its rest cleared (see release), so
+         * an action that takes items off the list would otherwise send this off the end of a broken chain.
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while(remaining > 0) {
+                checkForChanges();
+
+                T item = next.currentNode;
+                next = next.rest;
+                remaining--;
+                action.accept(item);
+            }
+
+            checkForChanges();
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if(remaining <= 1)
+                return null;
+
+            checkForChanges();
+
+            batch = Math.min(Math.min(batch + BATCH_INCREMENT, MAXIMUM_BATCH), remaining);
+            Object[] items = new Object[batch];
+
+            for(int i = 0; i < batch; i++) {
+                items[i] = next.currentNode;
+                next = next.rest;
+            }
+
+            remaining -= batch;
+            checkForChanges();
+            return Spliterators.spliterator(items, Spliterator.ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        private void checkForChanges() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -178,18 +966,132 @@ public class LinkedList<T> {
     /**
      * Provides a copy of this ArrayList. This will be used when we want to perform an action that returns nothing on the
      * list, and then return the result of that action.
+     *
+     * Every Node has to be copied, since either list could be changed later. If you want a copy that's free to make
+     * and safe to share with other threads, use snapshot() instead.
      * @return An exact copy of the list
      */
     public LinkedList<T> clone()
     {
         LinkedList<T> copy = new LinkedList<T>();
 
-        for(int i = 0; i < this.length(); i++)
-            copy.append(this.get(i));
+        for(Node<T> node = head; node != null; node = node.rest)
+            copy.append(node.currentNode);
 
         return copy;
     }
 
+    /**
+     * Makes an unchangeable copy of this list. Making the snapshot is O(n), but after that, the snapshot can be cloned
+     * in O(1), extended with prepend in O(1) without copying, and read by any number of threads without any locks.
+     * See PersistentLinkedList.
+     * @return The snapshot
+     */
+    public PersistentLinkedList<T> snapshot()
+    {
+        return PersistentLinkedList.from(this);
+    }
+
+    /**
+     * get has to walk from the head to the index, so it's O(n), and a loop of them is O(n^2). If you need to read (or
+     * insert, or remove) by index a lot, make an indexed copy of the list, where all of those are O(log n).
+     * See IndexedLinkedList.
+     * @return The indexed copy
+     */
+    public IndexedLinkedList<T> indexed()
+    {
+        return IndexedLinkedList.from(this);
+    }
+
+    /*
+    generate needs every item up front. These make lists whose items are only worked out as they're asked for, which
+    can be endless, or much bigger than what you'll actually look at. See LazyLinkedList.
+     */
+
+    /**
+     * @param seed The first item
+     * @param next Works out each item from the one before it
+     * @param <T> The type of item in the list
+     * @return The endless lazy list seed, next(seed), next(next(seed)), ...
+     */
+    public static <T> LazyLinkedList<T> iterate(T seed, UnaryOperator<T> next)
+    {
+        return LazyLinkedList.iterate(seed, next);
+    }
+
+    /**
+     * @param state The state to start from
+     * @param step Works out an item and the next state, as Map.entry(item, nextState), or null if there are no more
+     * @param <T> The type of item in the list
+     * @param <S> The type of the state
+     * @return The lazy list of every item step works out. See LazyLinkedList.unfold.
+     */
+    public static <T, S> LazyLinkedList<T> unfold(S state, Function<? super S, ? extends Map.Entry<? extends T, ? extends S>> step)
+    {
+        return LazyLinkedList.unfold(state, step);
+    }
+
+    /**
+     * @param from The first item
+     * @param to One past the last item
+     * @return The lazy list from, from + 1, ..., to - 1
+     */
+    public static LazyLinkedList<Integer> range(int from, int to)
+    {
+        return LazyLinkedList.range(from, to);
+    }
+
+    /**
+     * @param iterator Where the items come from. Nothing else should use it afterwards.
+     * @param <T> The type of item in the list
+     * @return A lazy list of whatever the Iterator gives back, taking each item from it only once
+     */
+    public static <T> LazyLinkedList<T> fromIterator(Iterator<? extends T> iterator)
+    {
+        return LazyLinkedList.fromIterator(iterator);
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list. map and filter on the Pipeline don't build any lists; all of the stages
+     * run together in a single pass once a terminal operation (reduce, collect, count, anyMatch, findFirst) asks for
+     * an answer. Prefer this when cascading several higher-order functions, like:
+     *
+     * list.lazy().filter(x -> x % 2 == 0).map(x -> x + 3).reduce((x, y) -> x + y, 0)
+     *
+     * See Pipeline for how the stages are fused together.
+     * @return A Pipeline whose source is this list
+     */
+    public Pipeline<T> lazy()
+    {
+        return Pipeline.of(sink -> {
+            for(Node<T> node = head; node != null; node = node.rest)
+                if(!sink.accept(node.currentNode))
+                    return false;
+
+            return true;
+        });
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list that runs its terminal operation in parallel, on the common ForkJoinPool.
+     * See Pipeline.reduce for the rules a reduce has to follow to give the same answer in parallel.
+     * @return A parallel Pipeline whose source is this list
+     */
+    public Pipeline<T> parallel()
+    {
+        return this.lazy().parallel();
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list that runs its terminal operation in parallel, on the given pool.
+     * @param pool The pool to run on
+     * @return A parallel Pipeline whose source is this list
+     */
+    public Pipeline<T> parallel(ForkJoinPool pool)
+    {
+        return this.lazy().parallel(pool);
+    }
+
     /**
      * Function is a generic interface from java.util.function. It's one of the functions that lambdas can create.
      * It's used for lambdas which take something, do something to it, and then return it. For instance (x -> x + 1)
@@ -197,7 +1099,8 @@ public class LinkedList<T> {
      * it, returning the resultant integer.
      *
      * This will take a function, create a new LinkedList by applying the function to the elements of this one, and return
-     * it. The reason this doesn't use recursion to do this in-place is because we wouldn't be able to cascade in that case.
+     * it. The reason this doesn't do it in-place is because we wouldn't be able to cascade in that case. If you're going
+     * to cascade, use lazy() instead, which doesn't build the list in between each step.
      *
      *
      * @param function The function that we'll be using on the list
@@ -206,14 +1109,7 @@ public class LinkedList<T> {
      */
     public <R> LinkedList<R> map(Function<T, R> function)
     {
-        LinkedList<R> newList = new LinkedList<R>();
-
-        for(int i = 0; i < this.length(); i++)
-            newList.append(
-                    function.apply(this.get(i))
-            );
-
-        return newList;
+        return this.lazy().map(function).collect();
     }
 
     /**
@@ -223,13 +1119,7 @@ public class LinkedList<T> {
      */
     public LinkedList<T> filter(Predicate<T> predicate)
     {
-        LinkedList<T> newList = new LinkedList<T>();
-
-        for(int i = 0; i < this.length(); i++)
-            if(predicate.test(this.get(i)))
-                newList.append(this.get(i));
-
-        return newList;
+        return this.lazy().filter(predicate).collect();
     }
 
     /**
@@ -250,13 +1140,318 @@ public class LinkedList<T> {
      */
     public T reduce(BiFunction<T, T, T> bifunction, T initialValue)
     {
-        // Set up the initial value of the value
-        T value = bifunction.apply(currentNode, initialValue);
+        return this.lazy().reduce(bifunction, initialValue);
+    }
+
+    /*
+    The next few are the relational operators, the ones a database uses: throwing out duplicates, grouping by a key,
+    and joining two lists on a key. Done the obvious way, each of them compares every item with every other one, which
+    is O(n^2). Hashing each item's key instead puts the items that could match in the same bucket, so each of these is
+    one pass over the list, O(n).
+
+    Keys are compared with equals and hashCode, just like in a HashMap, so they need to have good ones. Where the key is
+    an int or a long, the ...Long versions keep the keys in an open-addressing table of primitives (LongHashMap and
+    LongCountMap) instead of boxing every one of them.
+     */
+
+    /**
+     * Drops every item that equals one that came before it. The first of each is kept, in the order they came.
+     * @return A new list with no duplicates
+     */
+    public LinkedList<T> distinct()
+    {
+        Set<T> seen = new HashSet<>();
+        LinkedList<T> unique = new LinkedList<>();
+
+        for(T item : this)
+            if(seen.add(item))
+                unique.append(item);
+
+        return unique;
+    }
+
+    /**
+     * Splits the list into groups of items with the same key.
+     * @param key Works out an item's key
+     * @param <K> The type of key
+     * @return Each key, with the list of the items that have it, in their order in this list. The keys are in the
+     * order they first came up.
+     */
+    public <K> Map<K, LinkedList<T>> groupBy(Function<? super T, ? extends K> key)
+    {
+        Map<K, LinkedList<T>> groups = new LinkedHashMap<>();
+        table(this, key, groups);
+        return groups;
+    }
+
+    /**
+     * Splits the list into groups of items with the same key, and reduces each group as it goes, without ever making
+     * the lists of the groups. This is the "downstream reducer" of a SQL GROUP BY: summing, counting or taking the max
+     * of each group. Like reduce, the accumulator takes the item first and the running total second.
+     *
+     * A total can be null, like any other: the next item in the group is given null, not identity.
+     * @param key Works out an item's key
+     * @param identity What each group's total starts at. It's shared by every group, so it shouldn't be changed.
+     * @param accumulator Adds an item to its group's total
+     * @param <K> The type of key
+     * @param <R> The type of total
+     * @return Each key, with its group's total. The keys are in the order they first came up.
+     */
+    public <K, R> Map<K, R> groupBy(Function<? super T, ? extends K> key, R identity, BiFunction<? super T, R, R> accumulator)
+    {
+        // Each group's total is kept in a Total, which is changed in place, so each item is only one lookup
+        Map<K, Total<R>> totals = new LinkedHashMap<>();
+
+        for(T item : this) {
+            Total<R> total = totals.computeIfAbsent(key.apply(item), k -> new Total<>(identity));
+            total.value = accumulator.apply(item, total.value);
+        }
+
+        Map<K, R> result = new LinkedHashMap<>(totals.size() * 2);
+        totals.forEach((k, total) -> result.put(k, total.value));
+        return result;
+    }
+
+    /**
+     * Counts how many items there are with each key.
+     * @param key Works out an item's key
+     * @param <K> The type of key
+     * @return Each key, with how many items have it. The keys are in the order they first came up.
+     */
+    public <K> Map<K, Long> countBy(Function<? super T, ? extends K> key)
+    {
+        // Counted in long[1]s, which are bumped in place, instead of making a new Long for every item
+        Map<K, long[]> counts = new LinkedHashMap<>();
+
+        for(T item : this)
+            counts.computeIfAbsent(key.apply(item), k -> new long[1])[0]++;
+
+        Map<K, Long> result = new LinkedHashMap<>(counts.size() * 2);
+        counts.forEach((k, count) -> result.put(k, count[0]));
+        return result;
+    }
+
+    /**
+     * countBy, for int or long keys.
+     * @param key Works out an item's key
+     * @return Each key, with how many items have it
+     */
+    public LongCountMap countByLong(ToLongFunction<? super T> key)
+    {
+        LongCountMap counts = new LongCountMap();
+
+        for(T item : this)
+            counts.increment(key.applyAsLong(item));
+
+        return counts;
+    }
+
+    /**
+     * groupBy with a downstream reducer, for int or long keys. As with groupBy, a total can be null.
+     * @param key Works out an item's key
+     * @param identity What each group's total starts at
+     * @param accumulator Adds an item to its group's total
+     * @param <R> The type of total
+     * @return Each key, with its group's total
+     */
+    public <R> LongHashMap<R> groupByLong(ToLongFunction<? super T> key, R identity, BiFunction<? super T, R, R> accumulator)
+    {
+        LongHashMap<Total<R>> totals = new LongHashMap<>();
+
+        for(T item : this) {
+            Total<R> total = totals.computeIfAbsent(key.applyAsLong(item), k -> new Total<>(identity));
+            total.value = accumulator.apply(item, total.value);
+        }
+
+        LongHashMap<R> result = new LongHashMap<>(totals.size());
+        totals.forEach((k, total) -> result.put(k, total.value));
+        return result;
+    }
+
+    /**
+     * Joins this list with another on a key: every pair of an item from this list and an item from other with equal
+     * keys is passed to combiner, and what it gives back goes in the result. This is an inner join, so items with no
+     * match on the other side are left out.
+     *
+     * other is put in a hash table by key (it's the "build" side), and then each item of this list (the "probe" side)
+     * looks up its matches, so it's O(n + m + matches), and other should be the smaller list if there's a choice.
+     * @param other The list to join with
+     * @param leftKey Works out the key of an item in this list
+     * @param rightKey Works out the key of an item in other
+     * @param combiner Makes a result out of a matching pair
+     * @param <U> The type of item in other
+     * @param <K> The type of key
+     * @param <R> The type of result
+     * @return The results, in the order of this list, and for each item, in the order of its matches in other
+     */
+    public <U, K, R> LinkedList<R> hashJoin(LinkedList<U> other, Function<? super T, ? extends K> leftKey,
+                                           Function<? super U, ? extends K> rightKey,
+                                           BiFunction<? super T, ? super U, ? extends R> combiner)
+    {
+        Map<K, LinkedList<U>> table = new HashMap<>();
+        LinkedList<R> joined = new LinkedList<>();
+
+        table(other, rightKey, table);
+        probe(this, item -> table.get(leftKey.apply(item)), combiner, joined);
+        return joined;
+    }
+
+    /**
+     * hashJoin, for when other might be too big to fit in a hash table. If other's table would take more memory than
+     * spill's budget, both lists are split into partitions on disk and joined a partition at a time; see JoinSpill.
+     *
+     * Neither list is changed, even if the join fails partway. When it does come to partitions, the results come out
+     * grouped by partition, so they aren't in the order of this list.
+     * @param other The list to join with
+     * @param leftKey Works out the key of an item in this list
+     * @param rightKey Works out the key of an item in other
+     * @param combiner Makes a result out of a matching pair
+     * @param spill The memory budget, and how to write the items of each list
+     * @param <U> The type of item in other
+     * @param <K> The type of key
+     * @param <R> The type of result
+     * @return The results
+     * @throws IOException If the partition files can't be written or read
+     */
+    public <U, K, R> LinkedList<R> hashJoin(LinkedList<U> other, Function<? super T, ? extends K> leftKey,
+                                           Function<? super U, ? extends K> rightKey,
+                                           BiFunction<? super T, ? super U, ? extends R> combiner,
+                                           JoinSpill<T, U> spill) throws IOException
+    {
+        return spill.join(this, other, leftKey, rightKey, combiner);
+    }
+
+    /**
+     * hashJoin, for int or long keys.
+     * @param other The list to join with
+     * @param leftKey Works out the key of an item in this list
+     * @param rightKey Works out the key of an item in other
+     * @param combiner Makes a result out of a matching pair
+     * @param <U> The type of item in other
+     * @param <R> The type of result
+     * @return The results, in the order of this list, and for each item, in the order of its matches in other
+     */
+    public <U, R> LinkedList<R> hashJoinLong(LinkedList<U> other, ToLongFunction<? super T> leftKey,
+                                            ToLongFunction<? super U> rightKey,
+                                            BiFunction<? super T, ? super U, ? extends R> combiner)
+    {
+        LongHashMap<LinkedList<U>> table = new LongHashMap<>();
+
+        for(U item : other)
+            table.computeIfAbsent(rightKey.applyAsLong(item), k -> new LinkedList<>()).append(item);
+
+        LinkedList<R> joined = new LinkedList<>();
+        probe(this, item -> table.get(leftKey.applyAsLong(item)), combiner, joined);
+        return joined;
+    }
+
+    /**
+     * A group's running total in groupBy and groupByLong.
+     */
+    private static final class Total<R> {
+
+        R value;
+
+        Total(R value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Puts each item in the list of items with its key. The build half of a hash join, and all of groupBy.
+     */
+    static <U, K> void table(Iterable<U> items, Function<? super U, ? extends K> key, Map<K, LinkedList<U>> table)
+    {
+        for(U item : items)
+            table.computeIfAbsent(key.apply(item), k -> new LinkedList<>()).append(item);
+    }
 
-        // We have to start at one, since this.get(0) would just get the currentNode
-        for(int i = 1; i < this.length(); i++)
-            value = bifunction.apply(this.get(i), value);
+    /**
+     * Looks up each item's matches, and appends what the combiner makes of each pair to joined. The probe half of a
+     * hash join, whatever kind of table the matches come from.
+     */
+    static <T, U, R> void probe(Iterable<T> items, Function<? super T, LinkedList<U>> lookup,
+                                BiFunction<? super T, ? super U, ? extends R> combiner, LinkedList<R> joined)
+    {
+        for(T item : items) {
+            LinkedList<U> matches = lookup.apply(item);
+
+            if(matches != null)
+                for(U match : matches)
+                    joined.append(combiner.apply(item, match));
+        }
+    }
+
+    /*
+    toString is for people. For sending a list to another program, or saving it to a file, there's a binary format
+    (see BinaryFormat) that can be read back in. Since the list doesn't know how to turn a T into bytes, each of these
+    takes a Codec that does.
+     */
+
+    /**
+     * Writes the list to a stream, in the binary format. The stream isn't closed.
+     * @param out Where to write the list
+     * @param codec How to turn each item into bytes
+     * @throws IOException If the stream can't be written to
+     */
+    public void writeTo(OutputStream out, Codec<? super T> codec) throws IOException
+    {
+        writeTo(Channels.newChannel(out), codec);
+    }
+
+    /**
+     * Writes the list to a channel, in the binary format. The channel isn't closed.
+     * @param channel Where to write the list
+     * @param codec How to turn each item into bytes
+     * @throws IOException If the channel can't be written to
+     */
+    public void writeTo(WritableByteChannel channel, Codec<? super T> codec) throws IOException
+    {
+        BinaryFormat.writeObjects(channel, this, size, codec);
+    }
+
+    /**
+     * Reads a list that was written with writeTo. Nothing past the end of the list is read, so the stream can carry
+     * more after it.
+     * @param in Where to read the list from
+     * @param codec How to turn bytes back into each item. It should match the one the list was written with.
+     * @param <T> The type of item in the list
+     * @return The list
+     * @throws IOException If the stream can't be read, or doesn't hold a list
+     */
+    public static <T> LinkedList<T> readFrom(InputStream in, Codec<T> codec) throws IOException
+    {
+        return readFrom(Channels.newChannel(in), codec);
+    }
+
+    /**
+     * Reads a list that was written with writeTo. Nothing past the end of the list is read.
+     * @param channel Where to read the list from
+     * @param codec How to turn bytes back into each item
+     * @param <T> The type of item in the list
+     * @return The list
+     * @throws IOException If the channel can't be read, or doesn't hold a list
+     */
+    public static <T> LinkedList<T> readFrom(ReadableByteChannel channel, Codec<T> codec) throws IOException
+    {
+        return BinaryFormat.readObjects(channel, BinaryFormat.readHeader(channel, BinaryFormat.OBJECTS), codec);
+    }
+
+    /**
+     * Reads a list that was written with writeTo straight out of a ByteBuffer, such as a memory-mapped file. The codec
+     * reads each item right where it sits in the buffer, so nothing is made but the items and their Nodes.
+     * @param buffer The bytes. Its position is moved past the list.
+     * @param codec How to turn bytes back into each item
+     * @param <T> The type of item in the list
+     * @return The list
+     * @throws IllegalArgumentException If the buffer doesn't hold a list
+     */
+    public static <T> LinkedList<T> load(ByteBuffer buffer, Codec<T> codec)
+    {
+        ByteBuffer in = BinaryFormat.view(buffer);
+        LinkedList<T> list = BinaryFormat.loadObjects(in, BinaryFormat.loadHeader(in, BinaryFormat.OBJECTS, Integer.BYTES), codec);
 
-        return value;
+        BinaryFormat.finish(buffer, in);
+        return list;
     }
 }
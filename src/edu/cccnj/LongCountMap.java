@@ -0,0 +1,194 @@
+package edu.cccnj;
+
+/**
+ * Counts how many times each long (or int) key comes up, without boxing the keys or the counts.
+ *
+ * Counting with a java.util.HashMap<Long, Long> makes a Long for every key it sees and a new Long for nearly every
+ * count it bumps. This is the same open-addressing table as LongHashMap, with the counts in a long[] next to the keys,
+ * so counting an item is a hash, a probe or two along an array, and an increment. See LinkedList.countByLong.
+ *
+ * 0 marks an empty slot, so the key 0 is counted in a field of its own. Keys that were never counted have a count of 0.
+ * Iteration is in slot order. Not thread-safe.
+ */
+public class LongCountMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Takes a key and its count, for forEach.
+     */
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(long key, long count);
+    }
+
+    /**
+     * The keys. 0 means the slot is empty. The length is always a power of two.
+     */
+    private long[] keys;
+
+    private long[] counts;
+
+    /**
+     * How many slots are taken, not counting the key 0.
+     */
+    private int used;
+
+    private boolean hasZeroKey;
+
+    private long zeroCount;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongCountMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map with room for expectedSize keys before it has to grow.
+     * @param expectedSize How many keys to make room for
+     */
+    public LongCountMap(int expectedSize) {
+        int capacity = Buffers.powerOfTwoAtLeast(Math.max(expectedSize, 1) * 2);
+        keys = new long[capacity];
+        counts = new long[capacity];
+    }
+
+    /**
+     * Counts the key once more.
+     * @param key The key
+     * @return The key's new count
+     */
+    public long increment(long key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds amount to the key's count.
+     * @param key The key
+     * @param amount How much to add
+     * @return The key's new count
+     */
+    public long add(long key, long amount) {
+        if(key == 0) {
+            hasZeroKey = true;
+            return zeroCount += amount;
+        }
+
+        int slot = find(key);
+
+        if(keys[slot] == 0) {
+            keys[slot] = key;
+            counts[slot] = amount;
+
+            if(++used * 2 > keys.length)
+                grow();
+
+            return amount;
+        }
+
+        return counts[slot] += amount;
+    }
+
+    /**
+     * @param key The key
+     * @return How many times the key was counted, or 0 if it never was
+     */
+    public long get(long key) {
+        if(key == 0)
+            return zeroCount;
+
+        int slot = find(key);
+        return keys[slot] == 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * @param key The key to look for
+     * @return true if the key has been counted, even if its count has been added back down to 0
+     */
+    public boolean containsKey(long key) {
+        if(key == 0)
+            return hasZeroKey;
+
+        return keys[find(key)] != 0;
+    }
+
+    /**
+     * @return How many different keys have been counted
+     */
+    public int size() {
+        return used + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * @return true if nothing has been counted
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gives every key and its count to the consumer, in no particular order.
+     * @param consumer What to do with each key and count
+     */
+    public void forEach(CountConsumer consumer) {
+        if(hasZeroKey)
+            consumer.accept(0, zeroCount);
+
+        for(int slot = 0; slot < keys.length; slot++)
+            if(keys[slot] != 0)
+                consumer.accept(keys[slot], counts[slot]);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Finds the slot the key is in, or the empty slot where it would go.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = LongHashMap.slotOf(key, mask);
+
+        while(keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+
+        for(int slot = 0; slot < oldKeys.length; slot++) {
+            if(oldKeys[slot] != 0) {
+                int to = find(oldKeys[slot]);
+                keys[to] = oldKeys[slot];
+                counts[to] = oldCounts[slot];
+            }
+        }
+    }
+
+    /**
+     * Prints the counts like java.util.HashMap does, {key=count, ...}.
+     * @return The string representing this map
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+
+        forEach((key, count) -> {
+            if(builder.length() > 1)
+                builder.append(", ");
+
+            builder.append(key).append('=').append(count);
+        });
+
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,260 @@
+package edu.cccnj;
+
+import java.util.function.LongFunction;
+
+/**
+ * A hash map from long keys (or int keys, which fit in a long) to objects, without boxing the keys.
+ *
+ * java.util.HashMap<Long, V> turns every key into a Long object, and every entry into an Entry object that points at
+ * it, so looking up a key means following a reference to the Entry, and another to the Long, just to compare two
+ * numbers. This keeps the keys themselves in a long[], and the values in an Object[] right alongside: "open
+ * addressing". Each key has a home slot, worked out from its hash; if the slot is taken by a different key, it tries
+ * the next slot, and the next ("linear probing"), until it finds the key or an empty slot. Those slots are right next
+ * to each other in memory, so a probe is usually a single cache miss, if that.
+ *
+ * The table is kept at most half full, so the runs of taken slots stay short, and it doubles when it would get fuller
+ * than that.
+ *
+ * 0 is what an empty slot holds, so the key 0 can't live in the table. It gets a field of its own instead.
+ *
+ * There's no remove: this is made for building up tables (see LinkedList.groupByLong and hashJoinLong), and linear
+ * probing makes removing complicated. Iteration is in slot order, not the order the keys were put in. Null values are
+ * allowed, but get can't tell them apart from missing keys; use containsKey for that. Not thread-safe.
+ * @param <V> The type of value
+ */
+public class LongHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Takes a key and its value, for forEach.
+     * @param <V> The type of value
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    /**
+     * The keys. 0 means the slot is empty. The length is always a power of two.
+     */
+    private long[] keys;
+
+    private Object[] values;
+
+    /**
+     * How many slots are taken, not counting the key 0.
+     */
+    private int used;
+
+    private boolean hasZeroKey;
+
+    private V zeroValue;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map with room for expectedSize keys before it has to grow.
+     * @param expectedSize How many keys to make room for
+     */
+    public LongHashMap(int expectedSize) {
+        int capacity = Buffers.powerOfTwoAtLeast(Math.max(expectedSize, 1) * 2);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * @param key The key to look up
+     * @return The value for the key, or null if it isn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if(key == 0)
+            return zeroValue;
+
+        int slot = find(key);
+        return keys[slot] == 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @param key The key to look for
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(long key) {
+        if(key == 0)
+            return hasZeroKey;
+
+        return keys[find(key)] != 0;
+    }
+
+    /**
+     * Puts the value in the map under the key, replacing whatever was there.
+     * @param key The key
+     * @param value The value
+     * @return The value that was there before, or null if there wasn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if(key == 0) {
+            V old = zeroValue;
+            zeroValue = value;
+            hasZeroKey = true;
+            return old;
+        }
+
+        int slot = find(key);
+
+        if(keys[slot] != 0) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        added();
+        return null;
+    }
+
+    /**
+     * Gets the value for the key, first putting one in from make if the key isn't in the map yet. One probe either way.
+     * @param key The key
+     * @param make Makes the value for a key that isn't in the map
+     * @return The value for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> make) {
+        if(key == 0) {
+            if(!hasZeroKey) {
+                zeroValue = make.apply(0);
+                hasZeroKey = true;
+            }
+
+            return zeroValue;
+        }
+
+        int slot = find(key);
+
+        if(keys[slot] != 0)
+            return (V) values[slot];
+
+        V value = make.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        added();
+        return value;
+    }
+
+    /**
+     * @return How many keys are in the map
+     */
+    public int size() {
+        return used + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * @return true if there are no keys in the map
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gives every key and its value to the consumer, in no particular order.
+     * @param consumer What to do with each entry
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if(hasZeroKey)
+            consumer.accept(0, zeroValue);
+
+        for(int slot = 0; slot < keys.length; slot++)
+            if(keys[slot] != 0)
+                consumer.accept(keys[slot], (V) values[slot]);
+    }
+
+    /**
+     * @return Every key in the map, in the same order forEach gives them
+     */
+    public long[] keys() {
+        long[] all = new long[size()];
+        int i = 0;
+
+        if(hasZeroKey)
+            all[i++] = 0;
+
+        for(long key : keys)
+            if(key != 0)
+                all[i++] = key;
+
+        return all;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Finds the slot the key is in, or the empty slot where it would go.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+
+        while(keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * A key's home slot. Keys are often small or evenly spaced numbers (ids, timestamps), which would all pile up in
+     * a few slots if the low bits were used as they are, so the bits are mixed first.
+     */
+    static int slotOf(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    /**
+     * Counts a newly taken slot, and doubles the table if it's more than half full.
+     */
+    private void added() {
+        if(++used * 2 <= keys.length)
+            return;
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+
+        for(int slot = 0; slot < oldKeys.length; slot++) {
+            if(oldKeys[slot] != 0) {
+                int to = find(oldKeys[slot]);
+                keys[to] = oldKeys[slot];
+                values[to] = oldValues[slot];
+            }
+        }
+    }
+
+    /**
+     * Prints the map like java.util.HashMap does, {key=value, ...}.
+     * @return The string representing this map
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+
+        forEach((key, value) -> {
+            if(builder.length() > 1)
+                builder.append(", ");
+
+            builder.append(key).append('=').append(value);
+        });
+
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,265 @@
+package edu.cccnj;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A LinkedList that only holds longs, kept in a plain long[] so that nothing ever gets boxed into a Long.
+ *
+ * This works exactly like IntLinkedList; see the notes there for why these classes exist.
+ */
+public class LongLinkedList {
+
+    /**
+     * How much room a list gets before its first append.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The values. Only the first size slots are used; the rest is room to grow.
+     */
+    private long[] values;
+
+    /**
+     * How many values are in the list.
+     */
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public LongLinkedList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with room for capacity values before it has to grow.
+     * @param capacity How many values to make room for
+     */
+    public LongLinkedList(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Puts the value at the end of the list. When the array is full, it's copied into one twice as big, so on average
+     * this is still O(1).
+     * @param value The value you want at the end of the list.
+     */
+    public void append(long value) {
+        if(size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+
+        values[size++] = value;
+    }
+
+    /**
+     * Gets a value from the list. Indexing will begin at 0.
+     *
+     * LinkedList gives back null for an index that's out of range, but a long can't be null, so this throws instead.
+     * @param index The index of the value in the list
+     * @return The value found at the index
+     */
+    public long get(int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for length " + size);
+
+        return values[index];
+    }
+
+    /**
+     * @return The length of the list.
+     */
+    public int length() {
+        return size;
+    }
+
+    /**
+     * Generates a list from any number of values.
+     * @param values The values to put in the list
+     * @return The list with these values in it
+     */
+    public static LongLinkedList generate(long... values) {
+        LongLinkedList localList = new LongLinkedList(values.length);
+
+        System.arraycopy(values, 0, localList.values, 0, values.length);
+        localList.size = values.length;
+
+        return localList;
+    }
+
+    /**
+     * Prints out the list the same way LinkedList does, [1, [2, [3]]].
+     * @return The string representing this list
+     */
+    public String toString() {
+        if(size == 0)
+            return "[]";
+
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < size; i++) {
+            builder.append('[').append(values[i]);
+
+            if(i < size - 1)
+                builder.append(", ");
+        }
+
+        for(int i = 0; i < size; i++)
+            builder.append(']');
+
+        return builder.toString();
+    }
+
+    /**
+     * @return An exact copy of the list
+     */
+    public LongLinkedList clone() {
+        return generate(Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Copies the values into a LinkedList&lt;Long&gt;, boxing each one. Handy for handing the values to code that
+     * only knows about LinkedList.
+     * @return The boxed list
+     */
+    public LinkedList<Long> boxed() {
+        LinkedList<Long> list = new LinkedList<Long>();
+
+        for(int i = 0; i < size; i++)
+            list.append(values[i]);
+
+        return list;
+    }
+
+    /**
+     * Creates a new list by applying the function to every value of this one.
+     * @param function The function that we'll be using on the list
+     * @return The new list
+     */
+    public LongLinkedList map(LongUnaryOperator function) {
+        LongLinkedList newList = new LongLinkedList(size);
+
+        for(int i = 0; i < size; i++)
+            newList.values[i] = function.applyAsLong(values[i]);
+
+        newList.size = size;
+        return newList;
+    }
+
+    /**
+     * Returns only the values of the list for which the predicate is true
+     * @param predicate The predicate to filter with
+     * @return The filtered list
+     */
+    public LongLinkedList filter(LongPredicate predicate) {
+        LongLinkedList newList = new LongLinkedList(size);
+
+        for(int i = 0; i < size; i++)
+            if(predicate.test(values[i]))
+                newList.values[newList.size++] = values[i];
+
+        return newList;
+    }
+
+    /**
+     * Reduces the list the same way LinkedList.reduce does: the operator is given (value, valueSoFar), and the first
+     * valueSoFar is initialValue.
+     * @param operator The operator that we'll be using
+     * @param initialValue The value to start with
+     * @return The result after reducing the list
+     */
+    public long reduce(LongBinaryOperator operator, long initialValue) {
+        long value = initialValue;
+
+        for(int i = 0; i < size; i++)
+            value = operator.applyAsLong(values[i], value);
+
+        return value;
+    }
+
+    /**
+     * Writes the list to a stream, in the binary format (see BinaryFormat). The values are copied out of the array in
+     * big blocks, not one at a time. The stream isn't closed.
+     * @param out Where to write the list
+     * @throws IOException If the stream can't be written to
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(Channels.newChannel(out));
+    }
+
+    /**
+     * Writes the list to a channel, in the binary format. The channel isn't closed.
+     * @param channel Where to write the list
+     * @throws IOException If the channel can't be written to
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        BinaryFormat.writePrimitives(channel, BinaryFormat.LONGS, size, Long.BYTES,
+                (buffer, from, count) -> buffer.asLongBuffer().put(values, from, count));
+    }
+
+    /**
+     * Reads a list that was written with writeTo. Nothing past the end of the list is read.
+     * @param in Where to read the list from
+     * @return The list
+     * @throws IOException If the stream can't be read, or doesn't hold a list of longs
+     */
+    public static LongLinkedList readFrom(InputStream in) throws IOException {
+        return readFrom(Channels.newChannel(in));
+    }
+
+    /**
+     * Reads a list that was written with writeTo. Nothing past the end of the list is read.
+     * @param channel Where to read the list from
+     * @return The list
+     * @throws IOException If the channel can't be read, or doesn't hold a list of longs
+     */
+    public static LongLinkedList readFrom(ReadableByteChannel channel) throws IOException {
+        long[] values = new long[BinaryFormat.readHeader(channel, BinaryFormat.LONGS)];
+
+        BinaryFormat.readPrimitives(channel, values.length, Long.BYTES,
+                (buffer, from, count) -> buffer.asLongBuffer().get(values, from, count));
+
+        return adopt(values);
+    }
+
+    /**
+     * Reads a list that was written with writeTo straight out of a ByteBuffer, such as a memory-mapped file. The values
+     * are copied into the list's array in one go, without making anything per value.
+     * @param buffer The bytes. Its position is moved past the list.
+     * @return The list
+     * @throws IllegalArgumentException If the buffer doesn't hold a list of longs
+     */
+    public static LongLinkedList load(ByteBuffer buffer) {
+        ByteBuffer in = BinaryFormat.view(buffer);
+        long[] values = new long[BinaryFormat.loadHeader(in, BinaryFormat.LONGS, Long.BYTES)];
+
+        in.asLongBuffer().get(values);
+        in.position(in.position() + values.length * Long.BYTES);
+
+        BinaryFormat.finish(buffer, in);
+        return adopt(values);
+    }
+
+    /**
+     * @return A list that uses values as its array, without copying it
+     */
+    private static LongLinkedList adopt(long[] values) {
+        LongLinkedList list = new LongLinkedList(1);
+
+        if(values.length > 0)
+            list.values = values;
+
+        list.size = values.length;
+        return list;
+    }
+}
@@ -36,12 +36,27 @@ public class Main {
         System.out.println(linkedList2);
 
         // Let's cascade some higher-order functions! Let's get the sum of all even numbers from 1 - 10 after 3 is added to them
+        // lazy() lets every step run in a single pass, without building a new list after each one
         int sum  = linkedList2
+                .lazy()
                 .filter(x -> x % 2 == 0)
                 .map(x -> x + 3)
                 .reduce((x, y) -> x + y, 0);
 
         System.out.println("Sum of even numbers from 1-10 after 3 is added on: " + sum);
+
+        // Pipelines can also stop early, as soon as they have their answer
+        System.out.println("First element over 5: " + linkedList2.lazy().filter(x -> x > 5).findFirst());
+
+        // Hashing the keys groups and joins lists in a single pass, instead of comparing every pair of items
+        LinkedList<Integer> repeats = LinkedList.generate(3, 1, 3, 2, 1, 3);
+        System.out.println("\nWithout the repeats, which should be [3, [1, [2]]]: " + repeats.distinct());
+        System.out.println("How many of each, which should be {3=3, 1=2, 2=1}: " + repeats.countBy(x -> x));
+
+        LinkedList<String> names = LinkedList.generate("one", "two", "three");
+        LinkedList<Integer> lengths = LinkedList.generate(3, 5);
+        System.out.println("Joined on length, which should be [one has 3, [two has 3, [three has 5]]]: "
+                + lengths.hashJoin(names, x -> x, String::length, (x, name) -> name + " has " + x));
     }
 
     public static void testBuffers() {
@@ -69,6 +84,25 @@ public class Main {
 
         System.out.println("After adding an item, it should be 6: " + testStack.pop());
 
+        // Every Buffer has add, take, peek and size, so there's no need to cast
+        Buffers.Buffer testPriority = Buffers.make(
+                Buffers.Types.PriorityQueue,
+                4, 1, 5, 3, 2
+        );
+
+        System.out.println("Taking from the priority queue, which should be 1: " + testPriority.take());
+
+        testPriority.add(0);
+
+        System.out.println("After adding 0, it should be 0: " + testPriority.take());
+
+        // A window over the last 3 items, that always knows their max
+        WindowedQueue<Integer> window = Buffers.makeWindowed(Math::max, Integer.MIN_VALUE, 3);
+        for(int reading : new int[] {7, 2, 9, 4, 1, 3})
+            window.enqueue(reading);
+
+        System.out.println("The max of the last 3 readings, which should be 4: " + window.aggregate());
+
         System.out.println("See the design notes in Buffers to see a better way to make this class");
     }
 
@@ -0,0 +1,142 @@
+package edu.cccnj;
+
+/**
+ * Keeps LinkedList Nodes that aren't being used anymore, so they can be used again instead of making new ones.
+ *
+ * Making an object in Java is cheap, but every object made eventually has to be found and cleaned up by the garbage
+ * collector. A list that's appended to at one end and emptied from the other (a list of messages going through a
+ * router, say) makes and throws away one Node per item, forever, and the garbage collector has to keep up with all of
+ * them. With a NodePool, removeFirst and clear hand their Nodes to the pool, and append takes them back out. Once the
+ * pool has as many Nodes as the list ever needs at once, appending and removing don't make any objects at all.
+ *
+ * The free Nodes are kept in a chain, using their own rest references, so the pool itself never makes anything
+ * either. A Node's item is nulled out when it goes into the pool, so the pool never keeps an item from being garbage
+ * collected.
+ *
+ * There are two ways to use one:
+ *
+ * * LinkedList.pooled() uses a pool per thread (see perThread()). Each thread appends from, and recycles into, its
+ *   own pool, so nothing has to be locked, and a list can be handed from one thread to another.
+ *
+ * * LinkedList.pooled(pool) uses a pool you made, which can be made with its Nodes already in it (an "arena"), and
+ *   shared by several lists. A pool you make isn't thread-safe, so every list using it has to stay on one thread.
+ *
+ * Nothing is pooled unless you ask for it; a plain new LinkedList() makes Nodes the normal way.
+ */
+public class NodePool {
+
+    /**
+     * How many free Nodes a pool keeps if you don't say. Past that, removed Nodes are left to the garbage collector,
+     * so a list that was once huge doesn't hold on to all of that memory forever.
+     */
+    public static final int DEFAULT_MAXIMUM = 1 << 16;
+
+    private static final ThreadLocal<NodePool> LOCAL = ThreadLocal.withInitial(NodePool::new);
+
+    /**
+     * The pool that LinkedList.pooled() uses. It has no Nodes of its own; every call goes to the calling thread's pool.
+     */
+    private static final NodePool PER_THREAD = new NodePool(0, 0) {
+        @Override
+        <T> LinkedList.Node<T> obtain(T item) {
+            return LOCAL.get().obtain(item);
+        }
+
+        @Override
+        void recycle(LinkedList.Node<?> node) {
+            LOCAL.get().recycle(node);
+        }
+
+        @Override
+        public int available() {
+            return LOCAL.get().available();
+        }
+    };
+
+    /**
+     * The first free Node. The rest are chained after it through rest.
+     */
+    private LinkedList.Node<Object> free;
+
+    private int available;
+
+    private final int maximum;
+
+    /**
+     * Creates an empty pool that keeps up to DEFAULT_MAXIMUM free Nodes.
+     */
+    public NodePool() {
+        this(0, DEFAULT_MAXIMUM);
+    }
+
+    /**
+     * Creates a pool with presize Nodes already in it, so even the first appends don't make anything.
+     * @param presize How many Nodes to make up front
+     * @param maximum The most free Nodes to keep. At least presize.
+     */
+    public NodePool(int presize, int maximum) {
+        if(presize < 0 || maximum < presize)
+            throw new IllegalArgumentException("Can't make " + presize + " Nodes in a pool of at most " + maximum);
+
+        this.maximum = maximum;
+
+        for(int i = 0; i < presize; i++) {
+            LinkedList.Node<Object> node = new LinkedList.Node<Object>(null);
+            node.rest = free;
+            free = node;
+        }
+
+        available = presize;
+    }
+
+    /**
+     * @return A pool that sends every Node to, and takes every Node from, the pool of whichever thread is calling
+     */
+    public static NodePool perThread() {
+        return PER_THREAD;
+    }
+
+    /**
+     * @return How many free Nodes are in the pool right now
+     */
+    public int available() {
+        return available;
+    }
+
+    /**
+     * Gets a Node holding item, from the pool if there's one free, or a new one if not.
+     */
+    @SuppressWarnings("unchecked")
+    <T> LinkedList.Node<T> obtain(T item) {
+        LinkedList.Node<Object> node = free;
+
+        if(node == null)
+            return new LinkedList.Node<T>(item);
+
+        free = node.rest;
+        available--;
+
+        node.rest = null;
+        node.currentNode = item;
+        return (LinkedList.Node<T>) node;
+    }
+
+    /**
+     * Gives a Node that's no longer in any list back to the pool. Its item and rest are nulled out either way, so even
+     * a Node the pool has no room for doesn't keep anything from being garbage collected.
+     */
+    @SuppressWarnings("unchecked")
+    void recycle(LinkedList.Node<?> node) {
+        LinkedList.Node<Object> recycled = (LinkedList.Node<Object>) node;
+        recycled.currentNode = null;
+
+        if(available == maximum) {
+            recycled.rest = null;
+            return;
+        }
+
+        recycled.rest = free;
+        free = recycled;
+        available++;
+    }
+}
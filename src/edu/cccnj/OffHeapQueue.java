@@ -0,0 +1,165 @@
+package edu.cccnj;
+
+/**
+ * A Queue of fixed-size records that are kept outside of the Java heap.
+ *
+ * Putting a few small numbers (an id, a timestamp, an offset) into a regular Queue means making an object to hold
+ * them, plus boxed Longs, plus a slot in an array. Millions of those make a lot of work for the garbage collector,
+ * which has to find and scan every one of them. Here, the numbers are written straight into "direct" memory, which the
+ * garbage collector doesn't manage at all. A queue holding gigabytes of records is, as far as the collector knows, a
+ * handful of objects.
+ *
+ * The shape of a record is given by a RecordLayout, and records are read and written through an OffHeapRecord, which is
+ * a reusable window onto the record's bytes:
+ *
+ * OffHeapRecord record = queue.claim();            // null if the Queue is full
+ * record.putLong(0, id).putLong(1, timestamp);
+ * queue.publish();
+ *
+ * OffHeapRecord front = queue.dequeue();            // null if the Queue is empty
+ * long id = front.getLong(0);
+ *
+ * Neither enqueueing nor dequeueing makes any objects. Like the regular Queue, this isn't thread-safe.
+ */
+public class OffHeapQueue implements Buffers.Buffer {
+
+    private final OffHeapStore store;
+
+    /**
+     * The window handed out by claim.
+     */
+    private final OffHeapRecord writer;
+
+    /**
+     * The window handed out by dequeue and peek.
+     */
+    private final OffHeapRecord reader;
+
+    /**
+     * The number of the record at the front of the line. Records are numbered forever upward; the store wraps the
+     * numbers around its capacity.
+     */
+    private long head;
+
+    /**
+     * The number the next record will get.
+     */
+    private long tail;
+
+    /**
+     * Whether claim has been called without a publish after it.
+     */
+    private boolean claimed;
+
+    /**
+     * Creates an empty Queue with room for at least capacity records. The capacity is rounded up to a power of two.
+     * @param layout The shape of every record
+     * @param capacity How many records to make room for
+     */
+    public OffHeapQueue(RecordLayout layout, long capacity) {
+        store = new OffHeapStore(layout, capacity);
+        writer = new OffHeapRecord(layout);
+        reader = new OffHeapRecord(layout);
+    }
+
+    /**
+     * Gets a window onto the slot at the back of the Queue, for writing the next record into. The record doesn't count
+     * as enqueued until publish is called.
+     * @return The window, or null if the Queue is full
+     */
+    public OffHeapRecord claim() {
+        if(tail - head == store.capacity())
+            return null;
+
+        claimed = true;
+        return store.locate(writer, tail);
+    }
+
+    /**
+     * Enqueues the record written since the last claim.
+     */
+    public void publish() {
+        if(!claimed)
+            throw new IllegalStateException("publish() needs a claim() first");
+
+        claimed = false;
+        tail++;
+    }
+
+    /**
+     * Removes the record at the front of the Queue.
+     * @return A window onto the record, good until the next call on this Queue, or null if the Queue is empty
+     */
+    public OffHeapRecord dequeue() {
+        if(head == tail)
+            return null;
+
+        return store.locate(reader, head++);
+    }
+
+    /**
+     * @return A window onto the record at the front of the Queue without removing it, or null if the Queue is empty
+     */
+    @Override
+    public OffHeapRecord peek() {
+        return head == tail ? null : store.locate(reader, head);
+    }
+
+    /**
+     * Copies a record onto the Queue, the same as claiming a slot, copying every field into it, and publishing it.
+     * @param item An OffHeapRecord with the same size as this Queue's records, such as one from another OffHeapQueue
+     * @return true if the record went in, false if the Queue is full
+     */
+    @Override
+    public boolean add(Object item) {
+        if(!(item instanceof OffHeapRecord))
+            throw new IllegalArgumentException("An OffHeapQueue only holds OffHeapRecords, not " + item);
+
+        OffHeapRecord slot = claim();
+
+        if(slot == null)
+            return false;
+
+        slot.copyFrom((OffHeapRecord) item);
+        publish();
+        return true;
+    }
+
+    /**
+     * The same as dequeue.
+     */
+    @Override
+    public OffHeapRecord take() {
+        return dequeue();
+    }
+
+    /**
+     * @return How many records are in the Queue, or Integer.MAX_VALUE if there are more than that. See longSize.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return How many records are in the Queue
+     */
+    public long longSize() {
+        return tail - head;
+    }
+
+    /**
+     * @return true if there are no records in the Queue
+     */
+    @Override
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * @return The most records the Queue can hold
+     */
+    public long capacity() {
+        return store.capacity();
+    }
+}
@@ -0,0 +1,94 @@
+package edu.cccnj;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A window onto one record of an off-heap buffer. It isn't the record itself; it just points at where the record's
+ * bytes are, and reads and writes fields right there. That way, getting a record out of an OffHeapQueue or OffHeapStack
+ * doesn't make a single object: every buffer has one OffHeapRecord for writing and one for reading, and just moves
+ * them around.
+ *
+ * That also means an OffHeapRecord is only good until the next call on the buffer it came from. Copy the fields out
+ * if you need to keep them.
+ *
+ * Fields are numbered in the order they were given to RecordLayout.of. Nothing checks that a field is read as the type
+ * it was declared as; reading an Int field with getLong gives you garbage, not an exception.
+ */
+public final class OffHeapRecord {
+
+    private final RecordLayout layout;
+
+    /**
+     * The chunk of off-heap memory the record is in.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Where the record starts in buffer.
+     */
+    private int base;
+
+    OffHeapRecord(RecordLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Points this window at a different record.
+     */
+    OffHeapRecord moveTo(ByteBuffer buffer, int base) {
+        this.buffer = buffer;
+        this.base = base;
+        return this;
+    }
+
+    /**
+     * @return The layout of the record
+     */
+    public RecordLayout layout() {
+        return layout;
+    }
+
+    /*
+     * Reading and writing fields. The put methods give back the record, so they can be chained:
+     * record.putLong(0, id).putInt(1, offset)
+     */
+
+    public int getInt(int field) {
+        return buffer.getInt(base + layout.offset(field));
+    }
+
+    public long getLong(int field) {
+        return buffer.getLong(base + layout.offset(field));
+    }
+
+    public double getDouble(int field) {
+        return buffer.getDouble(base + layout.offset(field));
+    }
+
+    public OffHeapRecord putInt(int field, int value) {
+        buffer.putInt(base + layout.offset(field), value);
+        return this;
+    }
+
+    public OffHeapRecord putLong(int field, long value) {
+        buffer.putLong(base + layout.offset(field), value);
+        return this;
+    }
+
+    public OffHeapRecord putDouble(int field, double value) {
+        buffer.putDouble(base + layout.offset(field), value);
+        return this;
+    }
+
+    /**
+     * Copies every field of other into this record, all at once.
+     * @param other The record to copy. It has to be the same size as this one.
+     */
+    void copyFrom(OffHeapRecord other) {
+        if(other.layout.size() != layout.size())
+            throw new IllegalArgumentException("Can't copy a " + other.layout.size() + " byte record into a "
+                    + layout.size() + " byte one");
+
+        buffer.put(base, other.buffer, other.base, layout.size());
+    }
+}
@@ -0,0 +1,142 @@
+package edu.cccnj;
+
+/**
+ * A Stack of fixed-size records that are kept outside of the Java heap. This is the LIFO version of OffHeapQueue; see
+ * there for why you'd want one and how records are read and written.
+ *
+ * OffHeapRecord record = stack.claim();            // null if the Stack is full
+ * record.putLong(0, id);
+ * stack.publish();                                   // now it's on top
+ *
+ * long id = stack.pop().getLong(0);                  // pop gives null if the Stack is empty
+ */
+public class OffHeapStack implements Buffers.Buffer {
+
+    private final OffHeapStore store;
+
+    private final OffHeapRecord writer;
+
+    private final OffHeapRecord reader;
+
+    /**
+     * How many records are on the Stack. The top record is number size - 1.
+     */
+    private long size;
+
+    /**
+     * Whether claim has been called without a publish after it.
+     */
+    private boolean claimed;
+
+    /**
+     * Creates an empty Stack with room for at least capacity records. The capacity is rounded up to a power of two.
+     * @param layout The shape of every record
+     * @param capacity How many records to make room for
+     */
+    public OffHeapStack(RecordLayout layout, long capacity) {
+        store = new OffHeapStore(layout, capacity);
+        writer = new OffHeapRecord(layout);
+        reader = new OffHeapRecord(layout);
+    }
+
+    /**
+     * Gets a window onto the slot above the top of the Stack, for writing the next record into. The record isn't on the
+     * Stack until publish is called.
+     * @return The window, or null if the Stack is full
+     */
+    public OffHeapRecord claim() {
+        if(size == store.capacity())
+            return null;
+
+        claimed = true;
+        return store.locate(writer, size);
+    }
+
+    /**
+     * Pushes the record written since the last claim.
+     */
+    public void publish() {
+        if(!claimed)
+            throw new IllegalStateException("publish() needs a claim() first");
+
+        claimed = false;
+        size++;
+    }
+
+    /**
+     * Removes the record on top of the Stack.
+     * @return A window onto the record, good until the next call on this Stack, or null if the Stack is empty
+     */
+    public OffHeapRecord pop() {
+        if(size == 0)
+            return null;
+
+        return store.locate(reader, --size);
+    }
+
+    /**
+     * @return A window onto the record on top of the Stack without removing it, or null if the Stack is empty
+     */
+    @Override
+    public OffHeapRecord peek() {
+        return size == 0 ? null : store.locate(reader, size - 1);
+    }
+
+    /**
+     * Copies a record onto the Stack, the same as claiming a slot, copying every field into it, and publishing it.
+     * @param item An OffHeapRecord with the same size as this Stack's records, such as one from another OffHeapStack
+     * @return true if the record went in, false if the Stack is full
+     */
+    @Override
+    public boolean add(Object item) {
+        if(!(item instanceof OffHeapRecord))
+            throw new IllegalArgumentException("An OffHeapStack only holds OffHeapRecords, not " + item);
+
+        OffHeapRecord slot = claim();
+
+        if(slot == null)
+            return false;
+
+        slot.copyFrom((OffHeapRecord) item);
+        publish();
+        return true;
+    }
+
+    /**
+     * The same as pop.
+     */
+    @Override
+    public OffHeapRecord take() {
+        return pop();
+    }
+
+    /**
+     * @return How many records are on the Stack, or Integer.MAX_VALUE if there are more than that. See longSize.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return How many records are on the Stack
+     */
+    public long longSize() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no records on the Stack
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The most records the Stack can hold
+     */
+    public long capacity() {
+        return store.capacity();
+    }
+}
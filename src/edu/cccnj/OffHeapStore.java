@@ -0,0 +1,84 @@
+package edu.cccnj;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The memory behind OffHeapQueue and OffHeapStack: room for a fixed number of fixed-size records, outside of the Java
+ * heap.
+ *
+ * A direct ByteBuffer is memory that the garbage collector doesn't manage or scan, but one ByteBuffer can't be bigger
+ * than 2GB. So the records are spread over "chunks" of up to CHUNK_BYTES each, and a record's number says which chunk
+ * it's in and where. Both the capacity and the records per chunk are powers of two, so finding a record is a shift and
+ * a mask. Chunks are only allocated once a record in them is first used.
+ */
+final class OffHeapStore {
+
+    /**
+     * The most bytes in one chunk.
+     */
+    private static final int CHUNK_BYTES = 1 << 26;
+
+    private final RecordLayout layout;
+
+    private final ByteBuffer[] chunks;
+
+    /**
+     * log2 of the records per chunk.
+     */
+    private final int chunkShift;
+
+    /**
+     * records per chunk - 1.
+     */
+    private final int chunkMask;
+
+    /**
+     * How many records fit, a power of two.
+     */
+    private final long capacity;
+
+    OffHeapStore(RecordLayout layout, long capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("An off-heap buffer needs room for at least one record, got " + capacity);
+
+        if(capacity > 1L << 62)
+            throw new IllegalArgumentException("Can't make room for " + capacity + " records");
+
+        this.layout = layout;
+        this.capacity = capacity == 1 ? 1 : Long.highestOneBit(capacity - 1) << 1;
+
+        int recordsPerChunk = (int) Math.min(this.capacity, Integer.highestOneBit(Math.max(1, CHUNK_BYTES / layout.size())));
+        long chunkCount = this.capacity / recordsPerChunk;
+
+        if(chunkCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Can't make room for " + capacity + " records");
+
+        this.chunks = new ByteBuffer[(int) chunkCount];
+        this.chunkShift = Integer.numberOfTrailingZeros(recordsPerChunk);
+        this.chunkMask = recordsPerChunk - 1;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Points the record window at a record slot.
+     * @param record The window to move
+     * @param index The slot. Any number works; it wraps around the capacity.
+     * @return The window
+     */
+    OffHeapRecord locate(OffHeapRecord record, long index) {
+        long slot = index & (capacity - 1);
+        int chunk = (int) (slot >>> chunkShift);
+
+        ByteBuffer buffer = chunks[chunk];
+        if(buffer == null) {
+            buffer = ByteBuffer.allocateDirect((chunkMask + 1) * layout.size()).order(ByteOrder.nativeOrder());
+            chunks[chunk] = buffer;
+        }
+
+        return record.moveTo(buffer, ((int) slot & chunkMask) * layout.size());
+    }
+}
@@ -0,0 +1,252 @@
+package edu.cccnj;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A LinkedList that can never be changed once it's made. This is what functional languages like Haskell and Lisp
+ * call a "persistent" list.
+ *
+ * It's made out of the same cons cells as LinkedList: an item (currentNode) and the rest of the list after it (rest).
+ * The difference is that every field is final. Instead of changing a list, you make a new one. prepend makes a new
+ * cell whose rest is the old list, so the old list is still there, untouched, and the two lists share every cell of it.
+ * That's called "structural sharing":
+ *
+ * a = [2, [3]]
+ * b = a.prepend(1)      b is [1, [2, [3]]], and b.rest() IS a, the very same object
+ *
+ * Because nothing can change, there's never any reason to copy one. clone() just gives back the same list, and handing
+ * the list to another thread is always safe: Java promises that once a constructor finishes, every thread sees its
+ * final fields as they were set. No locks and no copies, no matter how many threads are reading.
+ *
+ * The catch is that only the front of the list is cheap to change. Adding to the end would mean copying every cell,
+ * since the last cell's rest can't be changed, so there's no append here.
+ * @param <T> The type of item in the list
+ */
+public final class PersistentLinkedList<T> {
+
+    /**
+     * The empty list. Every list ends with it. It's shared by all types, since it doesn't hold anything.
+     */
+    private static final PersistentLinkedList<Object> EMPTY = new PersistentLinkedList<Object>(null, null, 0);
+
+    /**
+     * The first item of the list. See LinkedList.Node.currentNode.
+     */
+    private final T currentNode;
+
+    /**
+     * The rest of the list after currentNode. Only null for the empty list.
+     */
+    private final PersistentLinkedList<T> rest;
+
+    /**
+     * How many items are in the list. Since the list never changes, this is worked out once, when the cell is made.
+     */
+    private final int size;
+
+    private PersistentLinkedList(T currentNode, PersistentLinkedList<T> rest, int size) {
+        this.currentNode = currentNode;
+        this.rest = rest;
+        this.size = size;
+    }
+
+    /**
+     * @param <T> The type of item in the list
+     * @return The empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentLinkedList<T> empty() {
+        return (PersistentLinkedList<T>) EMPTY;
+    }
+
+    /**
+     * Generates a list from any number of items.
+     * @param <T> The type parameter
+     * @return The list with these items in it
+     */
+    @SafeVarargs
+    public static <T> PersistentLinkedList<T> generate(T... items) {
+        PersistentLinkedList<T> list = empty();
+
+        // Build from the back, since the front is the only cheap end
+        for(int i = items.length - 1; i >= 0; i--)
+            list = list.prepend(items[i]);
+
+        return list;
+    }
+
+    /**
+     * Makes a persistent copy of a LinkedList. This is O(n) once; after that, the copy can be shared as many times as
+     * you like for free.
+     * @param list The list to copy
+     * @param <T> The type of item in the list
+     * @return The persistent copy
+     */
+    public static <T> PersistentLinkedList<T> from(LinkedList<T> list) {
+        return fromArray(toArray(list.lazy(), list.length()));
+    }
+
+    /**
+     * Makes a new list with the item in front of this one. This list doesn't change, and the new list shares all of its
+     * cells. O(1).
+     * @param item The item to put in front
+     * @return The new list
+     */
+    public PersistentLinkedList<T> prepend(T item) {
+        return new PersistentLinkedList<T>(item, this, size + 1);
+    }
+
+    /**
+     * @return The first item of the list, or null if the list is empty
+     */
+    public T first() {
+        return currentNode;
+    }
+
+    /**
+     * @return Every item after the first one, which is a list this one is sharing. The rest of the empty list is the
+     * empty list.
+     */
+    public PersistentLinkedList<T> rest() {
+        return size == 0 ? this : rest;
+    }
+
+    /**
+     * Gets an item from the list. Indexing will begin at 0. For an index that is out of range, null will be returned.
+     * @param index The index of the item in the list
+     * @return The item found at the index
+     */
+    public T get(int index) {
+        if(index < 0 || index >= size)
+            return null;
+
+        PersistentLinkedList<T> cell = this;
+        for(int i = 0; i < index; i++)
+            cell = cell.rest;
+
+        return cell.currentNode;
+    }
+
+    /**
+     * @return The length of the list. O(1), since every cell knows it.
+     */
+    public int length() {
+        return size;
+    }
+
+    /**
+     * @return true if the list is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A persistent list never changes, so a copy would be exactly the same forever. There's no reason to make one.
+     * @return This list
+     */
+    public PersistentLinkedList<T> clone() {
+        return this;
+    }
+
+    /**
+     * Copies the list into a new, changeable LinkedList.
+     * @return The LinkedList
+     */
+    public LinkedList<T> toLinkedList() {
+        return this.lazy().collect();
+    }
+
+    /**
+     * Starts a lazy Pipeline over this list. See LinkedList.lazy().
+     * @return A Pipeline whose source is this list
+     */
+    public Pipeline<T> lazy() {
+        return Pipeline.of(sink -> {
+            for(PersistentLinkedList<T> cell = this; cell.size > 0; cell = cell.rest)
+                if(!sink.accept(cell.currentNode))
+                    return false;
+
+            return true;
+        });
+    }
+
+    /**
+     * Creates a new list by applying the function to every item of this one.
+     * @param function The function that we'll be using on the list
+     * @param <R> The return type of the function
+     * @return The new list
+     */
+    public <R> PersistentLinkedList<R> map(Function<T, R> function) {
+        return fromArray(toArray(this.lazy().map(function), size));
+    }
+
+    /**
+     * Returns only the items of the list for which the predicate is true
+     * @param predicate The predicate to filter with
+     * @return The filtered list
+     */
+    public PersistentLinkedList<T> filter(Predicate<T> predicate) {
+        return fromArray(toArray(this.lazy().filter(predicate), size));
+    }
+
+    /**
+     * Reduces the list exactly like LinkedList.reduce: the bifunction is given (item, valueSoFar), and the first
+     * valueSoFar is initialValue.
+     * @param bifunction The bifunction that we'll be using
+     * @param initialValue The initial value
+     * @return The result after reducing the list
+     */
+    public T reduce(BiFunction<T, T, T> bifunction, T initialValue) {
+        return this.lazy().reduce(bifunction, initialValue);
+    }
+
+    /**
+     * Prints out the list the same way LinkedList does, [1, [2, [3]]].
+     * @return The string representing this list
+     */
+    public String toString() {
+        if(size == 0)
+            return "[]";
+
+        StringBuilder builder = new StringBuilder();
+
+        for(PersistentLinkedList<T> cell = this; cell.size > 0; cell = cell.rest) {
+            builder.append('[').append(cell.currentNode);
+
+            if(cell.size > 1)
+                builder.append(", ");
+        }
+
+        for(int i = 0; i < size; i++)
+            builder.append(']');
+
+        return builder.toString();
+    }
+
+    /**
+     * Copies everything that comes out of the Pipeline into an array, so that a list can be built from the back.
+     * @param pipeline The Pipeline to copy out
+     * @param most The most items that can come out of it
+     * @return The items, in an array exactly as long as the number of items
+     */
+    private static Object[] toArray(Pipeline<?> pipeline, int most) {
+        Object[] items = new Object[most];
+        int[] count = {0};
+
+        pipeline.forEach(item -> items[count[0]++] = item);
+
+        return count[0] == most ? items : Arrays.copyOf(items, count[0]);
+    }
+
+    /**
+     * Builds a list of every item in the array, in order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> PersistentLinkedList<T> fromArray(Object[] items) {
+        return generate((T[]) items);
+    }
+}
@@ -0,0 +1,510 @@
+package edu.cccnj;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A Pipeline is a lazy description of work to be done to a list. Calling map or filter on a Pipeline doesn't touch a
+ * single element, it just remembers that the work needs to happen. Nothing runs until you ask for an answer with one
+ * of the "terminal" operations: reduce, collect, count, anyMatch, findFirst or forEach.
+ *
+ * Why bother? Take the chain list.filter(...).map(...).reduce(...). Done eagerly, filter walks the list and builds a
+ * brand new list, then map walks THAT list and builds another one, and only then does reduce get to work. A Pipeline
+ * instead "fuses" the stages: each element goes through the filter, then the map, then into the reduce, before the next
+ * element is even looked at. One pass over the list, and no lists in between.
+ *
+ * This is the same trick java.util.stream uses. The way it works is with Sinks. A Sink is something that accepts items
+ * one at a time. Each stage wraps the Sink of the stage after it, so filter becomes "if the predicate is true, pass it
+ * along", and map becomes "apply the function, then pass it along". The source at the top just feeds items into the
+ * outermost Sink.
+ *
+ * A Pipeline can also run in parallel (see {@link #parallel()}). Then the items are copied out into an array, the array
+ * is cut into chunks, and each chunk is run through the stages on a ForkJoinPool. Every chunk gets its own partial
+ * answer, and the partial answers are combined back together, left to right, so the order of the items is still
+ * respected.
+ * @param <T> The type of the items coming out of this stage of the Pipeline
+ */
+public abstract class Pipeline<T> {
+
+    /**
+     * Receives items one at a time. Returning false tells whoever is feeding the Sink "I've seen enough, stop sending".
+     * That's what lets anyMatch and findFirst quit as soon as they have their answer.
+     * @param <T> The type of item the Sink accepts
+     */
+    @FunctionalInterface
+    interface Sink<T> {
+        boolean accept(T item);
+    }
+
+    /**
+     * Where the items of a Pipeline come from. It should feed every item, in order, into the Sink, stopping early if
+     * the Sink returns false.
+     * @param <S> The type of item the Source produces
+     */
+    @FunctionalInterface
+    interface Source<S> {
+
+        /**
+         * @param sink The Sink to feed
+         * @return false if the Sink asked to stop, true if every item was fed
+         */
+        boolean forEach(Sink<? super S> sink);
+    }
+
+    /**
+     * Chunks smaller than this aren't worth handing to another thread.
+     */
+    private static final int MINIMUM_CHUNK = 1024;
+
+    /**
+     * Stands in for "nothing found" in a parallel findFirst, since null is a perfectly good item.
+     */
+    private static final Object NONE = new Object();
+
+    /**
+     * The Source at the very top of the Pipeline. Every stage shares the same one.
+     */
+    final Source<?> source;
+
+    /**
+     * The pool to run terminal operations on, or null to run them on the calling thread.
+     */
+    final ForkJoinPool pool;
+
+    Pipeline(Source<?> source, ForkJoinPool pool) {
+        this.source = source;
+        this.pool = pool;
+    }
+
+    /**
+     * Makes the first stage of a Pipeline, which passes the items of the source along untouched.
+     * @param source Where the items come from
+     * @param <T> The type of the items
+     * @return The Pipeline
+     */
+    static <T> Pipeline<T> of(Source<T> source) {
+        return of(source, null);
+    }
+
+    private static <T> Pipeline<T> of(Source<T> source, ForkJoinPool pool) {
+        return new Pipeline<T>(source, pool) {
+            @Override
+            @SuppressWarnings("unchecked")
+            Sink<Object> wrap(Sink<? super T> downstream) {
+                // The source hands us exactly the T's it holds, so there's nothing to do
+                return (Sink<Object>) downstream;
+            }
+        };
+    }
+
+    /**
+     * Builds the Sink that the source should feed. It runs the items through this stage (and every stage before it)
+     * before handing them to downstream.
+     * @param downstream The Sink that wants the output of this stage
+     * @return The Sink that accepts the raw items of the source
+     */
+    abstract Sink<Object> wrap(Sink<? super T> downstream);
+
+    /**
+     * Pushes every item through the Pipeline into the Sink.
+     * @param sink The Sink at the bottom of the Pipeline
+     * @return false if the Sink stopped early
+     */
+    boolean run(Sink<? super T> sink) {
+        return source.forEach(wrap(sink));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Intermediate operations. These only build a new stage, they never look at any items.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Applies the function to every item that reaches this stage.
+     * @param function The function to apply
+     * @param <R> The type the function returns
+     * @return The Pipeline with the map stage on the end
+     */
+    public <R> Pipeline<R> map(Function<? super T, ? extends R> function) {
+        Pipeline<T> upstream = this;
+
+        return new Pipeline<R>(source, pool) {
+            @Override
+            Sink<Object> wrap(Sink<? super R> downstream) {
+                return upstream.wrap(item -> downstream.accept(function.apply(item)));
+            }
+        };
+    }
+
+    /**
+     * Only lets through the items for which the predicate is true.
+     * @param predicate The predicate to filter with
+     * @return The Pipeline with the filter stage on the end
+     */
+    public Pipeline<T> filter(Predicate<? super T> predicate) {
+        Pipeline<T> upstream = this;
+
+        return new Pipeline<T>(source, pool) {
+            @Override
+            Sink<Object> wrap(Sink<? super T> downstream) {
+                // A filtered out item isn't a reason to stop, so that case says true
+                return upstream.wrap(item -> !predicate.test(item) || downstream.accept(item));
+            }
+        };
+    }
+
+    /**
+     * Only lets through the first maxSize items, and then stops pulling items from the source altogether. On a source
+     * that never ends (see LazyLinkedList), this is what makes the Pipeline end.
+     *
+     * Which items are "first" depends on every stage before this one, so those stages always run sequentially, in
+     * order. Only the stages after limit run in parallel, on the items that made it through.
+     * @param maxSize The most items to let through
+     * @return The Pipeline with the limit stage on the end
+     */
+    public Pipeline<T> limit(long maxSize) {
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Can't limit a Pipeline to " + maxSize + " items");
+
+        Pipeline<T> upstream = this;
+
+        return of(sink -> {
+            if(maxSize == 0)
+                return true;
+
+            long[] seen = {0};
+            boolean[] stopped = {false};
+
+            // Stop right after the last item, rather than pulling one more from the source just to turn it away
+            upstream.run(item -> {
+                if(!sink.accept(item)) {
+                    stopped[0] = true;
+                    return false;
+                }
+
+                return ++seen[0] < maxSize;
+            });
+
+            return !stopped[0];
+        }, pool);
+    }
+
+    /**
+     * Lets items through for as long as the predicate is true of them, and stops pulling items from the source at the
+     * first one it isn't. Like limit, the stages before this one always run sequentially.
+     * @param predicate The predicate to test with
+     * @return The Pipeline with the takeWhile stage on the end
+     */
+    public Pipeline<T> takeWhile(Predicate<? super T> predicate) {
+        Pipeline<T> upstream = this;
+
+        return of(sink -> {
+            boolean[] stopped = {false};
+
+            upstream.run(item -> {
+                if(!predicate.test(item))
+                    return false;
+
+                if(!sink.accept(item)) {
+                    stopped[0] = true;
+                    return false;
+                }
+
+                return true;
+            });
+
+            // Running out of items that match isn't the same as the Sink asking to stop
+            return !stopped[0];
+        }, pool);
+    }
+
+    /**
+     * Makes the terminal operation run in parallel on the common ForkJoinPool.
+     *
+     * In parallel, the functions you give the Pipeline may be called from several threads at once, so they shouldn't
+     * change anything that's shared. Also, reduce has a few extra rules; see the reduce methods for those.
+     * @return The same Pipeline, in parallel mode
+     */
+    public Pipeline<T> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Makes the terminal operation run in parallel on the given pool.
+     * @param pool The pool to run on
+     * @return The same Pipeline, in parallel mode
+     */
+    public Pipeline<T> parallel(ForkJoinPool pool) {
+        return withSource(source, pool);
+    }
+
+    /**
+     * Makes the terminal operation run on the calling thread again.
+     * @return The same Pipeline, in sequential mode
+     */
+    public Pipeline<T> sequential() {
+        return withSource(source, null);
+    }
+
+    /**
+     * @return true if the terminal operation will run in parallel
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    /**
+     * Makes a Pipeline with the same stages as this one, but a different Source and pool. This is how each parallel
+     * chunk gets its own copy of the Pipeline.
+     */
+    private Pipeline<T> withSource(Source<?> newSource, ForkJoinPool newPool) {
+        Pipeline<T> stages = this;
+
+        return new Pipeline<T>(newSource, newPool) {
+            @Override
+            Sink<Object> wrap(Sink<? super T> downstream) {
+                return stages.wrap(downstream);
+            }
+        };
+    }
+
+    /**
+     * Runs op over the whole Pipeline. Sequentially, that's just op(this). In parallel, the items of the source are
+     * copied into an array, op runs on each chunk of it, and the partial results are put together with the combiner,
+     * always as combiner(leftChunk, rightChunk).
+     * @param op The terminal operation, as it would run on one thread
+     * @param combiner Puts two partial results together
+     * @param <R> The type of the result
+     * @return The result
+     */
+    private <R> R evaluate(Function<Pipeline<T>, R> op, BinaryOperator<R> combiner) {
+        if(pool == null)
+            return op.apply(this);
+
+        Object[] items = snapshot();
+        int chunk = Math.max(MINIMUM_CHUNK, items.length / (pool.getParallelism() * 4));
+
+        return pool.invoke(new Chunk<R>(items, 0, items.length, chunk, op, combiner));
+    }
+
+    /**
+     * Copies every item of the source into an array, so that it can be cut up into chunks.
+     */
+    private Object[] snapshot() {
+        Object[][] items = {new Object[16]};
+        int[] size = {0};
+
+        source.forEach(item -> {
+            if(size[0] == items[0].length)
+                items[0] = Arrays.copyOf(items[0], size[0] * 2);
+
+            items[0][size[0]++] = item;
+            return true;
+        });
+
+        return Arrays.copyOf(items[0], size[0]);
+    }
+
+    /**
+     * One piece of a parallel terminal operation, covering items[from, to). Big pieces split themselves in half and
+     * run the halves as separate tasks; small pieces just run the operation.
+     */
+    @SuppressWarnings("serial")
+    private final class Chunk<R> extends RecursiveTask<R> {
+
+        private final Object[] items;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final Function<Pipeline<T>, R> op;
+        private final BinaryOperator<R> combiner;
+
+        Chunk(Object[] items, int from, int to, int chunk, Function<Pipeline<T>, R> op, BinaryOperator<R> combiner) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.op = op;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if(to - from <= chunk)
+                return op.apply(withSource(sink -> {
+                    for(int i = from; i < to; i++)
+                        if(!sink.accept(items[i]))
+                            return false;
+
+                    return true;
+                }, null));
+
+            int middle = (from + to) >>> 1;
+            Chunk<R> left = new Chunk<R>(items, from, middle, chunk, op, combiner);
+            Chunk<R> right = new Chunk<R>(items, middle, to, chunk, op, combiner);
+
+            left.fork();
+            R rightResult = right.compute();
+            R leftResult = left.join();
+
+            return combiner.apply(leftResult, rightResult);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Terminal operations. These are what actually run the Pipeline.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reduces the items down to one value, the same way LinkedList.reduce does: the bifunction is given
+     * (item, valueSoFar), and the first valueSoFar is initialValue.
+     *
+     * In parallel, each chunk is reduced separately starting from initialValue, and two chunk results are put
+     * together with bifunction(rightResult, leftResult). That only gives the same answer as running sequentially when
+     * bifunction is associative and initialValue is its identity, like (x, y) -> x + y with 0, or Math::max with
+     * Integer.MIN_VALUE.
+     * @param bifunction The function to combine an item with the value so far
+     * @param initialValue The value to start with
+     * @return The reduced value, or initialValue if no items made it through
+     */
+    public T reduce(BiFunction<T, T, T> bifunction, T initialValue) {
+        return reduce(initialValue, bifunction, (left, right) -> bifunction.apply(right, left));
+    }
+
+    /**
+     * The general form of reduce, for when the answer isn't the same type as the items (say, adding up the lengths of a
+     * Pipeline of Strings), or when the pieces of a parallel reduce need their own way of being put together.
+     *
+     * The accumulator is given (item, valueSoFar), just like LinkedList.reduce. Sequentially, the combiner is never
+     * called. In parallel, every chunk starts from identity, and the results of two neighboring chunks are put together
+     * with combiner(leftResult, rightResult). For that to give the same answer as running sequentially:
+     *
+     * * identity has to be an identity of the combiner: combiner(identity, x) equals x
+     * * the combiner has to be associative: combiner(combiner(a, b), c) equals combiner(a, combiner(b, c))
+     * * the two have to agree: combiner(r, accumulator(item, identity)) equals accumulator(item, r)
+     * @param identity The value every chunk starts from
+     * @param accumulator Combines an item with the value so far
+     * @param combiner Puts the results of two neighboring chunks together
+     * @param <R> The type of the result
+     * @return The reduced value
+     */
+    public <R> R reduce(R identity, BiFunction<? super T, R, R> accumulator, BinaryOperator<R> combiner) {
+        return evaluate(pipeline -> pipeline.fold(identity, accumulator), combiner);
+    }
+
+    /**
+     * Gathers every item that comes out of the Pipeline into a new LinkedList, in order.
+     * @return The new LinkedList
+     */
+    public LinkedList<T> collect() {
+        return evaluate(Pipeline::collectHere, (left, right) -> {
+            left.concat(right);
+            return left;
+        });
+    }
+
+    /**
+     * @return How many items come out of the Pipeline
+     */
+    public long count() {
+        return evaluate(pipeline -> pipeline.fold(0L, (item, count) -> count + 1), Long::sum);
+    }
+
+    /**
+     * Checks whether any item that comes out of the Pipeline matches the predicate. This stops pulling items from the
+     * source as soon as it finds one, so on a huge list with an early match almost nothing runs. In parallel, a match
+     * in one chunk stops all of the others, too.
+     * @param predicate The predicate to test with
+     * @return true if some item matches
+     */
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        AtomicBoolean found = new AtomicBoolean(false);
+
+        // The sink says "stop" exactly when something matched, so the Pipeline stopping early means we found one
+        return evaluate(pipeline -> !pipeline.run(item -> {
+            if(found.get())
+                return false;
+
+            if(predicate.test(item)) {
+                found.set(true);
+                return false;
+            }
+
+            return true;
+        }), Boolean::logicalOr);
+    }
+
+    /**
+     * Gets the first item that comes out of the Pipeline. Like anyMatch, it stops as soon as it has an answer. In
+     * parallel it's still the first item in order, not just whichever chunk finished first.
+     * @return The first item, or null if nothing made it through
+     */
+    public T findFirst() {
+        Object first = evaluate(Pipeline::findFirstHere, (left, right) -> left != NONE ? left : right);
+
+        @SuppressWarnings("unchecked")
+        T item = first == NONE ? null : (T) first;
+        return item;
+    }
+
+    /**
+     * Runs the consumer on every item that comes out of the Pipeline. In parallel, the consumer is called from several
+     * threads, in no particular order.
+     * @param consumer What to do with each item
+     */
+    public void forEach(Consumer<? super T> consumer) {
+        evaluate(pipeline -> pipeline.run(item -> {
+            consumer.accept(item);
+            return true;
+        }), Boolean::logicalAnd);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // The single-threaded versions of the terminal operations. In parallel, these run once per chunk.
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private <R> R fold(R identity, BiFunction<? super T, R, R> accumulator) {
+
+        class Reducer implements Sink<T> {
+            R value = identity;
+
+            @Override
+            public boolean accept(T item) {
+                value = accumulator.apply(item, value);
+                return true;
+            }
+        }
+
+        Reducer reducer = new Reducer();
+        run(reducer);
+        return reducer.value;
+    }
+
+    private LinkedList<T> collectHere() {
+        LinkedList<T> list = new LinkedList<T>();
+
+        run(item -> {
+            list.append(item);
+            return true;
+        });
+
+        return list;
+    }
+
+    private Object findFirstHere() {
+        Object[] found = {NONE};
+
+        run(item -> {
+            found[0] = item;
+            return false;
+        });
+
+        return found[0];
+    }
+}
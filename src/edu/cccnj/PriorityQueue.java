@@ -0,0 +1,225 @@
+package edu.cccnj;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A Queue where the next item out isn't the oldest one, but the smallest one, by a Comparator. "Smallest" can mean
+ * whatever you like: the earliest deadline, the highest priority, the shortest job. Make one with Buffers.make, which
+ * orders items by their natural ordering (they have to be Comparable), or Buffers.makePriority, which takes a
+ * Comparator.
+ *
+ * Keeping a list sorted would make every add O(n), since everything after the new item has to shift over. Instead,
+ * this is a "heap": a tree, packed into an array, where every item is no bigger than its children. That's much less
+ * than sorted, but it's enough to know the smallest item is always at the root, index 0. Adding an item puts it at
+ * the bottom and "sifts" it up past any parents bigger than it; taking the root moves the last item up to the root
+ * and sifts it down past any children smaller than it. Either way, that's one trip along one branch, so O(log n).
+ *
+ * Most heaps give every item 2 children. This one is a "d-ary" heap, and gives every item d (4, by default). That makes
+ * the tree half as tall, so sifting up is half the work, and the d children sit right next to each other in the array,
+ * so looking through them to find the smallest is easy on the cache. The children of index i are at d*i + 1 through
+ * d*i + d, and the parent of i is at (i - 1) / d.
+ *
+ * Loading a whole array of items at once (which is what Buffers.make does with its objects) is O(n), not
+ * O(n log n): "heapify" sifts down every item that has children, from the last one back to the root. Most items are
+ * near the bottom, where there's hardly anywhere to sift to, so the total work adds up to O(n).
+ *
+ * Since null is how take says "empty", null can't be added. Like the regular Queue, this isn't thread-safe.
+ */
+public class PriorityQueue implements Buffers.Buffer {
+
+    /**
+     * How many children each item gets if you don't say.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The heap. Only the first size slots are used.
+     */
+    private Object[] heap;
+
+    private int size;
+
+    /**
+     * How many children each item has.
+     */
+    private final int arity;
+
+    private final Comparator<Object> comparator;
+
+    /**
+     * Creates an empty PriorityQueue that orders items by their natural ordering. Every item has to be Comparable to
+     * every other.
+     */
+    public PriorityQueue() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty PriorityQueue that orders items by the comparator.
+     * @param comparator Decides which item is smaller. If it's null, the items' natural ordering is used.
+     */
+    public PriorityQueue(Comparator<?> comparator) {
+        this(comparator, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty PriorityQueue that orders items by the comparator, with arity children per item.
+     * @param comparator Decides which item is smaller. If it's null, the items' natural ordering is used.
+     * @param arity How many children each item gets. At least 2.
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityQueue(Comparator<?> comparator, int arity) {
+        if(arity < 2)
+            throw new IllegalArgumentException("Every item needs room for at least 2 children, got " + arity);
+
+        this.comparator = comparator == null ? PriorityQueue::compareNaturally : (Comparator<Object>) comparator;
+        this.arity = arity;
+        heap = new Object[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Puts an item in the PriorityQueue. O(log n).
+     * @param item The item to add. Can't be null.
+     * @return true. The PriorityQueue never fills up.
+     */
+    @Override
+    public boolean add(Object item) {
+        if(item == null)
+            throw new NullPointerException("Can't add null to a PriorityQueue");
+
+        if(size == heap.length)
+            heap = Arrays.copyOf(heap, size * 2);
+
+        siftUp(size++, item);
+        return true;
+    }
+
+    /**
+     * Puts every one of the items in the PriorityQueue at once, in O(n + items.length), by adding them to the end of
+     * the heap and heapifying. That beats adding them one at a time whenever there are a lot of them.
+     * @param items The items to add. None of them can be null.
+     */
+    public void addAll(Object... items) {
+        for(Object item : items)
+            if(item == null)
+                throw new NullPointerException("Can't add null to a PriorityQueue");
+
+        if(size + items.length > heap.length)
+            heap = Arrays.copyOf(heap, Math.max(size + items.length, heap.length * 2));
+
+        System.arraycopy(items, 0, heap, size, items.length);
+        size += items.length;
+
+        heapify();
+    }
+
+    /**
+     * Removes the smallest item. O(log n).
+     * @return The smallest item, or null if the PriorityQueue is empty
+     */
+    @Override
+    public Object take() {
+        if(size == 0)
+            return null;
+
+        Object smallest = heap[0];
+        Object last = heap[--size];
+
+        // Null out the old slot, otherwise the array keeps the item from being garbage collected
+        heap[size] = null;
+
+        if(size > 0)
+            siftDown(0, last);
+
+        return smallest;
+    }
+
+    /**
+     * @return The smallest item without removing it, or null if the PriorityQueue is empty. O(1).
+     */
+    @Override
+    public Object peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * @return How many items are in the PriorityQueue
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return How many children each item has
+     */
+    public int arity() {
+        return arity;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Finds where item belongs, starting from index and moving up towards the root. Rather than swapping the item with
+     * each parent on the way, each bigger parent is moved down into the "hole", and the item is only written once, at
+     * the end.
+     */
+    private void siftUp(int index, Object item) {
+        while(index > 0) {
+            int parent = (index - 1) / arity;
+
+            if(comparator.compare(item, heap[parent]) >= 0)
+                break;
+
+            heap[index] = heap[parent];
+            index = parent;
+        }
+
+        heap[index] = item;
+    }
+
+    /**
+     * Finds where item belongs, starting from index and moving down towards the leaves, always following the smallest
+     * child.
+     */
+    private void siftDown(int index, Object item) {
+        while(true) {
+            int first = arity * index + 1;
+
+            if(first >= size)
+                break;
+
+            // The smallest of this item's children
+            int smallest = first;
+            int last = Math.min(first + arity, size);
+
+            for(int child = first + 1; child < last; child++)
+                if(comparator.compare(heap[child], heap[smallest]) < 0)
+                    smallest = child;
+
+            if(comparator.compare(item, heap[smallest]) <= 0)
+                break;
+
+            heap[index] = heap[smallest];
+            index = smallest;
+        }
+
+        heap[index] = item;
+    }
+
+    /**
+     * Turns the whole array into a heap, in O(n), by sifting down every item that has children, last one first.
+     */
+    private void heapify() {
+        for(int i = (size - 2) / arity; i >= 0; i--)
+            siftDown(i, heap[i]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNaturally(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.cccnj;
+
+/**
+ * Describes the shape of a fixed-size record for the off-heap buffers (OffHeapQueue and OffHeapStack): how many fields
+ * it has, what type each one is, and where each one sits in the record's bytes.
+ *
+ * For example, a record of an id, a timestamp and an offset could be
+ *
+ * RecordLayout.of(RecordLayout.Type.Long, RecordLayout.Type.Long, RecordLayout.Type.Int)
+ *
+ * which is 20 bytes per record: the id at byte 0, the timestamp at byte 8, and the offset at byte 16. Fields are then
+ * read and written by number (0, 1 and 2 here) through an OffHeapRecord.
+ */
+public final class RecordLayout {
+
+    /**
+     * The types a field can have, and how many bytes each one takes.
+     */
+    public enum Type {
+        Int(Integer.BYTES),
+        Long(java.lang.Long.BYTES),
+        Double(java.lang.Double.BYTES);
+
+        final int bytes;
+
+        Type(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Type[] types;
+
+    /**
+     * Where each field starts, in bytes from the start of the record.
+     */
+    private final int[] offsets;
+
+    /**
+     * How many bytes one record takes.
+     */
+    private final int size;
+
+    private RecordLayout(Type[] types) {
+        this.types = types.clone();
+        this.offsets = new int[types.length];
+
+        int offset = 0;
+        for(int i = 0; i < types.length; i++) {
+            offsets[i] = offset;
+            offset += types[i].bytes;
+        }
+
+        this.size = offset;
+    }
+
+    /**
+     * Makes a layout with a field of each of the types, in order.
+     * @param types The type of each field
+     * @return The layout
+     */
+    public static RecordLayout of(Type... types) {
+        if(types.length == 0)
+            throw new IllegalArgumentException("A record needs at least one field");
+
+        return new RecordLayout(types);
+    }
+
+    /**
+     * @return How many fields a record has
+     */
+    public int fields() {
+        return types.length;
+    }
+
+    /**
+     * @param field The number of the field
+     * @return The type of the field
+     */
+    public Type type(int field) {
+        return types[field];
+    }
+
+    /**
+     * @param field The number of the field
+     * @return Where the field starts, in bytes from the start of the record
+     */
+    public int offset(int field) {
+        return offsets[field];
+    }
+
+    /**
+     * @return How many bytes one record takes
+     */
+    public int size() {
+        return size;
+    }
+}
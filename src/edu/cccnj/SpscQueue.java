@@ -0,0 +1,325 @@
+package edu.cccnj;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+/**
+ * A Queue for exactly one producer thread and exactly one consumer thread ("single producer, single consumer", or
+ * SPSC). If more than one thread enqueues, or more than one thread dequeues, it WILL lose or duplicate items.
+ *
+ * In exchange for that rule, it can be much faster than any Queue that has to handle many threads. Neither side ever
+ * locks, and neither side ever has to retry: only the producer writes tail, and only the consumer writes head, so
+ * there's nothing to race over. Every call finishes in a fixed number of steps, which is called "wait-free".
+ *
+ * Three tricks make it fast:
+ *
+ * * The array is made once, up front, with a power of two length. enqueue and dequeue never allocate anything.
+ *
+ * * head and tail are kept on different cache lines. The CPU moves memory between cores 64 bytes at a time, so if head
+ *   and tail were next to each other, every write to one would kick the other out of the other core's cache, even
+ *   though the two threads never touch each other's field. That's called "false sharing". The padding classes below
+ *   put 64+ bytes of unused longs between the fields to keep them apart.
+ *
+ * * Each side keeps a private, possibly out of date, copy of the other side's counter. The producer only reads the real
+ *   head when its copy says the Queue is full, and the consumer only reads the real tail when its copy says the Queue
+ *   is empty. Most of the time, neither side looks at the other's cache line at all.
+ *
+ * The producer writes the item into its slot, and only then "releases" the new tail. The consumer "acquires" tail
+ * before reading the slot. Release/acquire is a promise from the JVM that everything written before the release is
+ * visible to a thread after it acquires, so the consumer can never see the new tail without also seeing the item.
+ * It's cheaper than a full volatile write, since the producer doesn't have to wait for the write to be seen.
+ */
+public class SpscQueue extends SpscConsumerFields implements Buffers.Buffer {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscConsumerFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscProducerFields.class, "tail", long.class);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Padding after head, so that whatever the JVM puts after this object doesn't share its cache line.
+     */
+    @SuppressWarnings("unused")
+    private long p20, p21, p22, p23, p24, p25, p26, p27;
+
+    /**
+     * The slots. The item for sequence number n lives at n & mask.
+     */
+    private final Object[] contents;
+
+    /**
+     * contents.length - 1.
+     */
+    private final int mask;
+
+    /**
+     * Creates an empty Queue with room for at least capacity items. The real capacity is rounded up to a power of two.
+     * @param capacity How many items to make room for
+     */
+    public SpscQueue(int capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("An SpscQueue needs room for at least one item, got " + capacity);
+
+        contents = new Object[Buffers.powerOfTwoAtLeast(capacity)];
+        mask = contents.length - 1;
+    }
+
+    /**
+     * Places an item at the back of the Queue. Only the producer thread may call this.
+     * @param item The item to enqueue. Can't be null.
+     * @return true if the item was enqueued, false if the Queue is full
+     */
+    public boolean enqueue(Object item) {
+        if(item == null)
+            throw new NullPointerException("Can't enqueue null onto an SpscQueue");
+
+        long t = tail;
+
+        if(t - cachedHead == contents.length) {
+            cachedHead = (long) HEAD.getAcquire(this);
+
+            if(t - cachedHead == contents.length)
+                return false;
+        }
+
+        contents[(int) t & mask] = item;
+        TAIL.setRelease(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Places as many of items[from, from + count) at the back of the Queue as there's room for, in order. They're all
+     * published at once, with a single release of tail. Only the producer thread may call this.
+     * @param items Where to take the items from. None of them can be null.
+     * @param from The index of the first item to enqueue
+     * @param count How many items to try to enqueue. Nothing is enqueued if it's 0 or less.
+     * @return How many items were enqueued, which is less than count if the Queue filled up
+     */
+    public int enqueueAll(Object[] items, int from, int count) {
+        if(count <= 0)
+            return 0;
+
+        long t = tail;
+        long free = contents.length - (t - cachedHead);
+
+        if(free < count) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            free = contents.length - (t - cachedHead);
+        }
+
+        int claimed = (int) Math.min(free, count);
+
+        for(int i = 0; i < claimed; i++) {
+            Object item = items[from + i];
+
+            if(item == null) {
+                // Publish what we have so far, so the Queue isn't left half-written
+                TAIL.setRelease(this, t + i);
+                throw new NullPointerException("Can't enqueue null onto an SpscQueue");
+            }
+
+            contents[(int) (t + i) & mask] = item;
+        }
+
+        TAIL.setRelease(this, t + claimed);
+        return claimed;
+    }
+
+    /**
+     * Removes the item at the front of the Queue. Only the consumer thread may call this.
+     * @return The item at the front of the Queue, or null if the Queue is empty
+     */
+    public Object dequeue() {
+        long h = head;
+
+        if(h == cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+
+            if(h == cachedTail)
+                return null;
+        }
+
+        int slot = (int) h & mask;
+        Object item = contents[slot];
+        contents[slot] = null;
+
+        HEAD.setRelease(this, h + 1);
+        return item;
+    }
+
+    /**
+     * Removes up to max items from the front of the Queue, handing each one to the consumer in order. The slots are
+     * only given back to the producer once, at the end. Only the consumer thread may call this.
+     * @param consumer What to do with each item
+     * @param max The most items to remove. Nothing is removed if it's 0 or less.
+     * @return How many items were removed
+     */
+    public int drain(Consumer<Object> consumer, int max) {
+        if(max <= 0)
+            return 0;
+
+        long h = head;
+        long available = cachedTail - h;
+
+        if(available < max) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            available = cachedTail - h;
+        }
+
+        int claimed = (int) Math.min(available, max);
+        int consumed = 0;
+
+        // If the consumer throws, the item it threw on has already been taken, so head still has to move past it
+        try {
+            while(consumed < claimed) {
+                int slot = (int) (h + consumed) & mask;
+                Object item = contents[slot];
+                contents[slot] = null;
+                consumed++;
+                consumer.accept(item);
+            }
+        } finally {
+            HEAD.setRelease(this, h + consumed);
+        }
+
+        return consumed;
+    }
+
+    /**
+     * Removes up to max items from the front of the Queue into out, starting at index 0. Only the consumer thread may
+     * call this.
+     * @param out Where to put the items
+     * @param max The most items to remove. Can't be more than out.length.
+     * @return How many items were removed
+     */
+    public int drainTo(Object[] out, int max) {
+        max = Math.min(max, out.length);
+
+        if(max <= 0)
+            return 0;
+
+        long h = head;
+        long available = cachedTail - h;
+
+        if(available < max) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            available = cachedTail - h;
+        }
+
+        int claimed = (int) Math.min(available, max);
+
+        for(int i = 0; i < claimed; i++) {
+            int slot = (int) (h + i) & mask;
+            out[i] = contents[slot];
+            contents[slot] = null;
+        }
+
+        HEAD.setRelease(this, h + claimed);
+        return claimed;
+    }
+
+    /**
+     * The same as enqueue. Only the producer thread may call this.
+     */
+    @Override
+    public boolean add(Object item) {
+        return enqueue(item);
+    }
+
+    /**
+     * The same as dequeue. Only the consumer thread may call this.
+     */
+    @Override
+    public Object take() {
+        return dequeue();
+    }
+
+    /**
+     * Only the consumer thread may call this.
+     * @return The item at the front of the Queue without taking it out, or null if the Queue is empty
+     */
+    @Override
+    public Object peek() {
+        long h = head;
+
+        if(h == cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+
+            if(h == cachedTail)
+                return null;
+        }
+
+        return contents[(int) h & mask];
+    }
+
+    /**
+     * @return About how many items are in the Queue. Either thread may call this, but the answer may be out of date
+     * by the time it comes back.
+     */
+    @Override
+    public int size() {
+        long h = (long) HEAD.getAcquire(this);
+        long t = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(t - h, contents.length));
+    }
+
+    /**
+     * @return The most items the Queue will hold
+     */
+    public int capacity() {
+        return contents.length;
+    }
+}
+
+/*
+ * The padding classes. Java doesn't promise anything about the order of fields within one class, but it does always put
+ * a superclass's fields before a subclass's. So each "layer" of fields is its own class, and the padding layers keep
+ * the producer's fields and the consumer's fields at least 64 bytes away from each other and from the object header.
+ */
+
+abstract class SpscHeaderPadding {
+    @SuppressWarnings("unused")
+    private long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscProducerFields extends SpscHeaderPadding {
+
+    /**
+     * The sequence number of the next slot the producer will fill. Only the producer writes this.
+     */
+    volatile long tail;
+
+    /**
+     * The producer's copy of head. It's never ahead of the real head, so at worst the producer thinks the Queue is
+     * fuller than it is.
+     */
+    long cachedHead;
+}
+
+abstract class SpscMiddlePadding extends SpscProducerFields {
+    @SuppressWarnings("unused")
+    private long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscConsumerFields extends SpscMiddlePadding {
+
+    /**
+     * The sequence number of the next slot the consumer will read. Only the consumer writes this.
+     */
+    volatile long head;
+
+    /**
+     * The consumer's copy of tail. It's never ahead of the real tail, so at worst the consumer thinks the Queue is
+     * emptier than it is.
+     */
+    long cachedTail;
+}
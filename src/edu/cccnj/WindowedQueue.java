@@ -0,0 +1,273 @@
+package edu.cccnj;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * A Queue that always knows the "sum" of everything in it, where sum can be any associative way of combining two
+ * items: adding, taking the min or the max, multiplying matrices, ... It's made for sliding windows: rolling sums,
+ * mins and maxes over the last N events, or the last T milliseconds. Make one with Buffers.makeWindowed or
+ * Buffers.makeTimeWindowed.
+ *
+ * Adding to a running total is easy, but taking an item back out isn't, in general. You can subtract for a sum, but
+ * there's no way to "un-max" a max. Re-reducing the whole window every time something leaves it is O(window) per
+ * event. Instead, this keeps the window in two stacks (the "two-stack" trick, the same one that turns two Stacks into
+ * a Queue):
+ *
+ * * New items go on the back stack, and the back stack keeps one running total of everything on it.
+ *
+ * * Items leave from the front stack. Every item on the front stack remembers the total of itself and everything that
+ *   came after it on the front stack, so popping the oldest item leaves the right total on the next one down.
+ *
+ * * When the front stack runs out, the whole back stack is flipped over onto it, working out each of those totals on
+ *   the way, and the back stack starts over empty.
+ *
+ * The total of the whole window is just the front stack's top total combined with the back stack's total: one
+ * combine, O(1). A flip is O(window), but each item is only ever flipped once, so over many items it's O(1) each.
+ *
+ * combine doesn't need to be commutative: items are always combined oldest on the left. It does need to be
+ * associative, and identity has to combine with any item to give back that item (0 for sums, Integer.MAX_VALUE for
+ * mins, ...).
+ *
+ * A window can be bounded by count (the oldest item leaves when there are too many), by age (items leave once they're
+ * older than the limit), or both. Ages come from a clock, which is System.nanoTime unless you give it another one; to
+ * window by the times in your events, give it a clock that gives back the time of the latest event. Old items are
+ * evicted whenever the queue is added to or asked for its aggregate.
+ *
+ * Like the regular Queue, this isn't thread-safe.
+ * @param <T> The type of item, which is also the type of the aggregate
+ */
+public class WindowedQueue<T> implements Buffers.Buffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final BinaryOperator<T> combine;
+
+    private final T identity;
+
+    /**
+     * The most items in the window, or Integer.MAX_VALUE for no limit.
+     */
+    private final int maxCount;
+
+    /**
+     * How old an item can get, in the clock's units, or Long.MAX_VALUE for no limit.
+     */
+    private final long maxAge;
+
+    private final LongSupplier clock;
+
+    /*
+    The front stack. The top, the oldest item in the window, is at frontSize - 1. frontTotals[i] is the total of
+    frontItems[i] and everything below it, which is everything newer than it on the front stack.
+     */
+    private Object[] frontItems = new Object[DEFAULT_CAPACITY];
+    private Object[] frontTotals = new Object[DEFAULT_CAPACITY];
+    private long[] frontTimes = new long[DEFAULT_CAPACITY];
+    private int frontSize;
+
+    /*
+    The back stack, oldest first, and the total of all of it.
+     */
+    private Object[] backItems = new Object[DEFAULT_CAPACITY];
+    private long[] backTimes = new long[DEFAULT_CAPACITY];
+    private int backSize;
+    private T backTotal;
+
+    /**
+     * Creates a WindowedQueue.
+     * @param combine Combines two items (older on the left) into one. Has to be associative.
+     * @param identity The aggregate of an empty window
+     * @param maxCount The most items in the window, or Integer.MAX_VALUE for no limit
+     * @param maxAge How old an item can get, in clock's units, or Long.MAX_VALUE for no limit
+     * @param clock Where the time comes from
+     */
+    public WindowedQueue(BinaryOperator<T> combine, T identity, int maxCount, long maxAge, LongSupplier clock) {
+        if(maxCount < 1)
+            throw new IllegalArgumentException("A window needs room for at least one item, got " + maxCount);
+
+        if(maxAge < 0)
+            throw new IllegalArgumentException("A window can't have a negative age, got " + maxAge);
+
+        this.combine = combine;
+        this.identity = identity;
+        this.maxCount = maxCount;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        backTotal = identity;
+    }
+
+    /**
+     * Creates a WindowedQueue that holds the last maxCount items.
+     * @param combine Combines two items (older on the left) into one. Has to be associative.
+     * @param identity The aggregate of an empty window
+     * @param maxCount The most items in the window
+     */
+    public WindowedQueue(BinaryOperator<T> combine, T identity, int maxCount) {
+        this(combine, identity, maxCount, Long.MAX_VALUE, System::nanoTime);
+    }
+
+    /**
+     * Creates a WindowedQueue that holds the items from the last maxAge of time, by System.nanoTime.
+     * @param combine Combines two items (older on the left) into one. Has to be associative.
+     * @param identity The aggregate of an empty window
+     * @param maxAge How old an item can get
+     * @param unit The unit of maxAge
+     */
+    public WindowedQueue(BinaryOperator<T> combine, T identity, long maxAge, TimeUnit unit) {
+        this(combine, identity, Integer.MAX_VALUE, unit.toNanos(maxAge), System::nanoTime);
+    }
+
+    /**
+     * Puts an item at the back of the window, evicting whatever's too old, or one too many. Amortized O(1).
+     * @param item The item to add
+     */
+    public void enqueue(T item) {
+        long now = clock.getAsLong();
+
+        if(backSize == backItems.length) {
+            backItems = Arrays.copyOf(backItems, backSize * 2);
+            backTimes = Arrays.copyOf(backTimes, backSize * 2);
+        }
+
+        backItems[backSize] = item;
+        backTimes[backSize] = now;
+        backSize++;
+        backTotal = combine.apply(backTotal, item);
+
+        while(size() > maxCount)
+            dequeue();
+
+        evictOlderThan(now);
+    }
+
+    /**
+     * Takes the oldest item out of the window. Amortized O(1).
+     * @return The oldest item, or null if the window is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T dequeue() {
+        if(frontSize == 0) {
+            if(backSize == 0)
+                return null;
+
+            flip();
+        }
+
+        int top = --frontSize;
+        T item = (T) frontItems[top];
+
+        // Null out the old slots, otherwise the arrays keep them from being garbage collected
+        frontItems[top] = null;
+        frontTotals[top] = null;
+
+        return item;
+    }
+
+    /**
+     * The combination of every item in the window, oldest to newest, after evicting anything that's gotten too old.
+     * O(1), apart from the evicting.
+     * @return The aggregate, or identity if the window is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T aggregate() {
+        if(maxAge != Long.MAX_VALUE)
+            evictOlderThan(clock.getAsLong());
+
+        if(frontSize == 0)
+            return backTotal;
+
+        return combine.apply((T) frontTotals[frontSize - 1], backTotal);
+    }
+
+    /**
+     * The same as enqueue.
+     * @return true. Old items are evicted to make room, so a WindowedQueue never turns an item away.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean add(Object item) {
+        enqueue((T) item);
+        return true;
+    }
+
+    /**
+     * The same as dequeue.
+     */
+    @Override
+    public Object take() {
+        return dequeue();
+    }
+
+    /**
+     * @return The oldest item without removing it, or null if the window is empty
+     */
+    @Override
+    public Object peek() {
+        if(frontSize > 0)
+            return frontItems[frontSize - 1];
+
+        return backSize > 0 ? backItems[0] : null;
+    }
+
+    /**
+     * @return How many items are in the window. Items that have gotten too old since the last enqueue or aggregate
+     * are still counted.
+     */
+    @Override
+    public int size() {
+        return frontSize + backSize;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Evicts every item added more than maxAge before now. The oldest item is always the one on top of the front
+     * stack (or, when that's empty, the first one on the back), so this stops at the first one that's young enough.
+     */
+    private void evictOlderThan(long now) {
+        if(maxAge == Long.MAX_VALUE)
+            return;
+
+        while(size() > 0) {
+            long oldest = frontSize > 0 ? frontTimes[frontSize - 1] : backTimes[0];
+
+            if(now - oldest <= maxAge)
+                return;
+
+            dequeue();
+        }
+    }
+
+    /**
+     * Moves the back stack onto the empty front stack, newest first, so the oldest ends up on top. Each item's total is
+     * the item combined with the total below it, which is everything newer.
+     */
+    @SuppressWarnings("unchecked")
+    private void flip() {
+        if(frontItems.length < backSize) {
+            frontItems = new Object[backItems.length];
+            frontTotals = new Object[backItems.length];
+            frontTimes = new long[backItems.length];
+        }
+
+        T total = identity;
+
+        for(int i = backSize - 1; i >= 0; i--) {
+            T item = (T) backItems[i];
+            total = combine.apply(item, total);
+
+            frontItems[frontSize] = item;
+            frontTotals[frontSize] = total;
+            frontTimes[frontSize] = backTimes[i];
+            frontSize++;
+
+            backItems[i] = null;
+        }
+
+        backSize = 0;
+        backTotal = identity;
+    }
+}
@@ -0,0 +1,228 @@
+package edu.cccnj;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A deque for "work stealing", where one thread (the owner) keeps its own work in it, and any other thread (a thief)
+ * that runs out of work can take some. This is the Chase-Lev deque, from David Chase and Yossi Lev's 2005 paper, with
+ * the memory ordering from Lê, Pop, Cohen and Zappa Nardelli's 2013 paper on making it correct for real CPUs.
+ *
+ * The owner pushes and pops at the bottom, like a Stack, so it always works on whatever it added most recently (which
+ * is usually still in its cache). Thieves steal from the top, the oldest item. In a recursive task, the oldest item is
+ * usually the biggest piece of work, so one steal gets a thief a lot to do, and thieves and the owner are at opposite
+ * ends, so they hardly ever get in each other's way.
+ *
+ * Nothing locks:
+ *
+ * * Only the owner ever writes bottom, so push never needs to compare and set anything.
+ *
+ * * Thieves race each other for top with compare-and-set. Whoever moves top past an item gets it; everyone else gets
+ *   null and can go try somewhere else.
+ *
+ * * The only time the owner races a thief is for the very last item, when both ends point at the same slot. Then the
+ *   owner also has to compare-and-set top, and whichever of them wins gets it.
+ *
+ * The slots are a ring buffer with a power of two length, like SpscQueue's, indexed by ever-growing counters. When the
+ * owner runs out of room, it copies the items into an array twice as big. A thief that's still reading the old array
+ * doesn't notice: the items it can steal are in the same places in both.
+ *
+ * Only the owner thread may call push, pop, add, take and peek. Any thread may call steal and size. Since null is how
+ * pop and steal say "nothing", null can't be pushed.
+ *
+ * Once a thief steals an item, its slot still holds a reference to it until the owner writes over it; a thief can't
+ * clear the slot, since by then the owner may have already reused it. So up to a capacity's worth of stolen items can
+ * be kept from the garbage collector a little longer than they'd otherwise be.
+ */
+public class WorkStealingDeque implements Buffers.Buffer {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final VarHandle TOP;
+    private static final VarHandle BOTTOM;
+    private static final VarHandle ARRAY;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOP = lookup.findVarHandle(WorkStealingDeque.class, "top", long.class);
+            BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom", long.class);
+            ARRAY = lookup.findVarHandle(WorkStealingDeque.class, "array", Object[].class);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The counter of the oldest item: the next one a thief will steal. Only ever goes up, by compare-and-set.
+     */
+    private volatile long top;
+
+    /**
+     * The counter of the slot the owner will push into next. Only the owner writes it.
+     */
+    private volatile long bottom;
+
+    /**
+     * The slots. The item for counter n lives at n & (array.length - 1). Replaced with a bigger one by grow().
+     */
+    private volatile Object[] array;
+
+    /**
+     * Creates an empty deque.
+     */
+    public WorkStealingDeque() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty deque with room for initialCapacity items before it has to grow.
+     * @param initialCapacity How many items to make room for
+     */
+    public WorkStealingDeque(int initialCapacity) {
+        array = new Object[Buffers.powerOfTwoAtLeast(Math.max(initialCapacity, 1))];
+    }
+
+    /**
+     * Puts an item at the bottom. Only the owner may call this.
+     * @param item The item to push. Can't be null.
+     */
+    public void push(Object item) {
+        if(item == null)
+            throw new NullPointerException("Can't push null onto a WorkStealingDeque");
+
+        long b = (long) BOTTOM.getOpaque(this);
+        long t = (long) TOP.getAcquire(this);
+        Object[] a = (Object[]) ARRAY.getOpaque(this);
+
+        if(b - t > a.length - 1)
+            a = grow(a, t, b);
+
+        SLOT.setOpaque(a, (int) b & (a.length - 1), item);
+
+        // Release: a thief that sees the new bottom also sees the item in its slot
+        BOTTOM.setRelease(this, b + 1);
+    }
+
+    /**
+     * Takes the item at the bottom: the one pushed most recently. Only the owner may call this.
+     * @return The item, or null if the deque is empty (or a thief stole the last item first)
+     */
+    public Object pop() {
+        long b = (long) BOTTOM.getOpaque(this) - 1;
+        Object[] a = (Object[]) ARRAY.getOpaque(this);
+
+        // Claim the bottom slot before looking at top. The full fence makes sure a thief can't read the old bottom
+        // after we've read the old top, or we could both think the same item is ours.
+        BOTTOM.setOpaque(this, b);
+        VarHandle.fullFence();
+        long t = (long) TOP.getOpaque(this);
+
+        if(t > b) {
+            // It was already empty
+            BOTTOM.setOpaque(this, b + 1);
+            return null;
+        }
+
+        int slot = (int) b & (a.length - 1);
+        Object item = SLOT.getOpaque(a, slot);
+
+        if(t < b) {
+            // More than one item, so no thief can be reaching for this one
+            SLOT.setOpaque(a, slot, null);
+            return item;
+        }
+
+        // The last item. Race the thieves for it by moving top past it, which empties the deque either way.
+        boolean won = TOP.compareAndSet(this, t, t + 1);
+        BOTTOM.setOpaque(this, b + 1);
+
+        if(!won)
+            return null;
+
+        SLOT.setOpaque(a, slot, null);
+        return item;
+    }
+
+    /**
+     * Takes the item at the top: the oldest one. Any thread may call this.
+     * @return The item, or null if the deque is empty or another thread took the item first
+     */
+    public Object steal() {
+        long t = (long) TOP.getAcquire(this);
+
+        // Pairs with the fence in pop(), so the two of us can't both miss each other's claim on the last item
+        VarHandle.fullFence();
+        long b = (long) BOTTOM.getAcquire(this);
+
+        if(t >= b)
+            return null;
+
+        Object[] a = (Object[]) ARRAY.getAcquire(this);
+        Object item = SLOT.getAcquire(a, (int) t & (a.length - 1));
+
+        if(!TOP.compareAndSet(this, t, t + 1))
+            return null;
+
+        return item;
+    }
+
+    /**
+     * The same as push.
+     * @return true. A WorkStealingDeque never fills up.
+     */
+    @Override
+    public boolean add(Object item) {
+        push(item);
+        return true;
+    }
+
+    /**
+     * The same as pop.
+     */
+    @Override
+    public Object take() {
+        return pop();
+    }
+
+    /**
+     * @return The item pop would give back, without removing it, or null if the deque is empty. Only the owner may
+     * call this, and a thief may still steal the item before the owner pops it.
+     */
+    @Override
+    public Object peek() {
+        long b = (long) BOTTOM.getOpaque(this);
+        long t = (long) TOP.getAcquire(this);
+
+        if(t >= b)
+            return null;
+
+        Object[] a = (Object[]) ARRAY.getOpaque(this);
+        return SLOT.getOpaque(a, (int) (b - 1) & (a.length - 1));
+    }
+
+    /**
+     * @return About how many items are in the deque. From any thread but the owner, it may already be out of date.
+     */
+    @Override
+    public int size() {
+        long b = (long) BOTTOM.getAcquire(this);
+        long t = (long) TOP.getAcquire(this);
+        return (int) Math.max(0, Math.min(b - t, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Copies the items from top to bottom into an array twice as big. The old array is left exactly as it was, so a
+     * thief still reading it gets the right item.
+     */
+    private Object[] grow(Object[] a, long t, long b) {
+        Object[] bigger = new Object[a.length * 2];
+
+        for(long i = t; i < b; i++)
+            bigger[(int) i & (bigger.length - 1)] = a[(int) i & (a.length - 1)];
+
+        ARRAY.setRelease(this, bigger);
+        return bigger;
+    }
+}
@@ -0,0 +1,358 @@
+package edu.cccnj;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs tasks on a fixed number of worker threads, each with its own WorkStealingDeque.
+ *
+ * The usual way to share work between threads is one queue that every thread takes from. That's fine for big tasks,
+ * but for lots of tiny ones (a recursive task that splits itself in two until the pieces are small, say), every
+ * thread is fighting over the same queue for every single task, and the queue becomes the slowest part of the program.
+ *
+ * Here, a task started from inside a worker (a task starting its own subtasks) goes on that worker's own deque, where
+ * nobody else is looking. A worker with nothing to do picks a worker at random and steals the oldest task from it. So
+ * threads only ever touch each other's deques when one of them has run out of work, and picking at random means the
+ * thieves spread out instead of all lining up at the same deque.
+ *
+ * Tasks from outside (the thread that made the executor, for instance) go on a shared ConcurrentQueue, which every
+ * worker checks when its own deque is empty.
+ *
+ * A worker that can't find anything spins for a moment, then yields, then parks until new work wakes it up. It also
+ * wakes up on its own every so often to look again, so a wake-up that gets missed only costs a little time, never a
+ * stuck task.
+ *
+ * A task that throws is handed to the worker's UncaughtExceptionHandler, and the worker goes on to the next task.
+ */
+public class WorkStealingExecutor implements Executor, AutoCloseable {
+
+    /**
+     * How many times an idle worker looks for work, and how many times it yields, before it parks.
+     */
+    private static final int SPINS = 64;
+    private static final int YIELDS = 64;
+
+    /**
+     * The longest a parked worker sleeps before looking for work again on its own.
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Worker[] workers;
+
+    /**
+     * Tasks from threads that aren't workers.
+     */
+    private final ConcurrentQueue submissions = new ConcurrentQueue();
+
+    /**
+     * How many workers are parked, so execute only goes looking for one to wake when there is one.
+     */
+    private final AtomicInteger parked = new AtomicInteger();
+
+    private volatile boolean shutdown;
+
+    /**
+     * How many outside threads are in the middle of execute: past the check for shutdown, but maybe not done putting
+     * their task on the shared queue yet. Workers don't stop while this isn't 0. See execute.
+     */
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    /**
+     * Creates an executor with one worker per processor.
+     */
+    public WorkStealingExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an executor, and starts its workers.
+     * @param parallelism How many worker threads to run
+     */
+    public WorkStealingExecutor(int parallelism) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("An executor needs at least one worker, got " + parallelism);
+
+        workers = new Worker[parallelism];
+
+        for(int i = 0; i < parallelism; i++)
+            workers[i] = new Worker(i);
+
+        for(Worker worker : workers)
+            worker.start();
+    }
+
+    /**
+     * Runs the task on one of the workers, some time in the future. From inside a task, it goes on the current worker's
+     * own deque; from anywhere else, on the shared queue.
+     * @param task The task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        if(task == null)
+            throw new NullPointerException("Can't run a null task");
+
+        Thread current = Thread.currentThread();
+
+        // Tasks can still start subtasks after shutdown, so that they can finish
+        if(current instanceof Worker && ((Worker) current).executor() == this) {
+            ((Worker) current).deque.push(task);
+        }
+        else {
+            /*
+            Without submitting, shutdown could happen between checking it and enqueueing, and every worker could see
+            nothing to do and stop, leaving the task on the queue forever. Counting ourselves first closes that gap: a
+            worker checks shutdown, then submitting, and we count ourselves, then check shutdown, so either we see
+            shutdown and turn the task away, or the worker sees us and waits for the task.
+             */
+            submitting.incrementAndGet();
+
+            try {
+                if(shutdown)
+                    throw new RejectedExecutionException("The executor has been shut down");
+
+                submissions.enqueue(task);
+            } finally {
+                submitting.decrementAndGet();
+            }
+        }
+
+        if(parked.get() > 0)
+            wakeOne();
+    }
+
+    /**
+     * @return How many worker threads there are
+     */
+    public int parallelism() {
+        return workers.length;
+    }
+
+    /**
+     * @return How many tasks have been stolen from one worker by another, in total. Only about right while tasks are
+     * running.
+     */
+    public long steals() {
+        long steals = 0;
+
+        for(Worker worker : workers)
+            steals += worker.steals;
+
+        return steals;
+    }
+
+    /**
+     * Stops taking new tasks. Everything already started, and everything those tasks start, still runs; then the
+     * workers stop.
+     */
+    public void shutdown() {
+        shutdown = true;
+
+        for(Worker worker : workers)
+            LockSupport.unpark(worker);
+    }
+
+    /**
+     * Waits for the workers to stop, after shutdown().
+     * @param timeout How long to wait
+     * @param unit The unit of timeout
+     * @return true if every worker stopped, false if the time ran out first
+     * @throws InterruptedException If this thread is interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        for(Worker worker : workers) {
+            long left = deadline - System.nanoTime();
+
+            if(left <= 0)
+                return !worker.isAlive();
+
+            TimeUnit.NANOSECONDS.timedJoin(worker, left);
+
+            if(worker.isAlive())
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Shuts down, and waits for the workers to finish everything.
+     */
+    @Override
+    public void close() {
+        shutdown();
+
+        try {
+            for(Worker worker : workers)
+                worker.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Unparks one parked worker, if there still is one.
+     */
+    private void wakeOne() {
+        for(Worker worker : workers) {
+            if(worker.parked) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    /**
+     * True once the workers can stop: shut down, nobody halfway through handing over a task, and nothing waiting.
+     */
+    private boolean finished() {
+        return shutdown && submitting.get() == 0 && !hasWork();
+    }
+
+    /**
+     * Any task that's waiting anywhere: on the shared queue, or on another worker's deque.
+     */
+    private boolean hasWork() {
+        if(submissions.peek() != null)
+            return true;
+
+        for(Worker worker : workers)
+            if(worker.deque.size() > 0)
+                return true;
+
+        return false;
+    }
+
+    private final class Worker extends Thread {
+
+        private final WorkStealingDeque deque = new WorkStealingDeque();
+
+        /**
+         * For picking victims. A tiny xorshift generator, since each worker needs its own and it's called a lot.
+         */
+        private int seed;
+
+        private volatile boolean parked;
+
+        /**
+         * Only this worker writes it, so it doesn't need to be atomic.
+         */
+        private volatile long steals;
+
+        Worker(int index) {
+            super("work-stealing-worker-" + index);
+            this.seed = (index + 1) * 0x9E3779B9;
+            setDaemon(true);
+        }
+
+        WorkStealingExecutor executor() {
+            return WorkStealingExecutor.this;
+        }
+
+        @Override
+        public void run() {
+            int misses = 0;
+
+            while(true) {
+                Runnable task = find();
+
+                if(task != null) {
+                    misses = 0;
+                    runTask(task);
+                }
+                else if(finished()) {
+                    return;
+                }
+                else {
+                    idle(++misses);
+                }
+            }
+        }
+
+        /**
+         * Looks for a task: first on this worker's own deque, then the shared queue, then other workers' deques.
+         */
+        private Runnable find() {
+            Object task = deque.pop();
+
+            if(task == null)
+                task = submissions.dequeue();
+
+            if(task == null)
+                task = steal();
+
+            return (Runnable) task;
+        }
+
+        /**
+         * Tries every other worker once, starting at a random one.
+         */
+        private Object steal() {
+            int n = workers.length;
+
+            if(n == 1)
+                return null;
+
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+
+            int start = (seed & Integer.MAX_VALUE) % n;
+
+            for(int i = 0; i < n; i++) {
+                Worker victim = workers[(start + i) % n];
+
+                if(victim == this)
+                    continue;
+
+                Object task = victim.deque.steal();
+
+                if(task != null) {
+                    steals++;
+                    return task;
+                }
+            }
+
+            return null;
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch(RuntimeException | Error e) {
+                getUncaughtExceptionHandler().uncaughtException(this, e);
+            }
+        }
+
+        /**
+         * Spin, then yield, then park. Before parking, look one last time, since a task may have been added just after
+         * find() gave up, and before execute could see we were parked.
+         */
+        private void idle(int misses) {
+            if(misses < SPINS) {
+                Thread.onSpinWait();
+                return;
+            }
+
+            if(misses < SPINS + YIELDS) {
+                Thread.yield();
+                return;
+            }
+
+            parked = true;
+            WorkStealingExecutor.this.parked.incrementAndGet();
+
+            if(!shutdown && !hasWork())
+                LockSupport.parkNanos(this, PARK_NANOS);
+
+            WorkStealingExecutor.this.parked.decrementAndGet();
+            parked = false;
+        }
+    }
+}